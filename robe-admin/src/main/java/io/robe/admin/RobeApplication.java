@@ -23,6 +23,7 @@ import io.robe.common.exception.RobeExceptionMapper;
 import io.robe.common.service.search.SearchFactoryProvider;
 import io.robe.guice.GuiceBundle;
 import io.robe.hibernate.RobeHibernateBundle;
+import io.robe.hibernate.search.SearchIndexBundle;
 import io.robe.mail.MailBundle;
 import io.robe.quartz.QuartzBundle;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
@@ -70,6 +71,7 @@ public class RobeApplication<T extends RobeConfiguration> extends Application<T>
         RobeHibernateBundle<T> hibernateBundle = RobeHibernateBundle.createInstance(getHibernateScanPackages(), new String[0]);
         addGuiceBundle(bootstrap, hibernateBundle);
         bootstrap.addBundle(hibernateBundle);
+        bootstrap.addBundle(new SearchIndexBundle<T>());
         bootstrap.addBundle(new TokenAuthBundle<T>());
         bootstrap.addCommand(new InitializeCommand(this, hibernateBundle));
         bootstrap.addBundle(new QuartzBundle<T>());
@@ -23,6 +23,7 @@ import java.io.Console;
 import java.lang.reflect.Method;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.Scanner;
 import java.util.Set;
 
@@ -125,6 +126,12 @@ public class InitializeCommand<T extends RobeConfiguration> extends EnvironmentC
         Reflections reflections = new Reflections(guiceConfiguration.getScanPackages(), this.getClass().getClassLoader());
 
         Set<Class<?>> services = reflections.getTypesAnnotatedWith(Path.class);
+        // Existing services are read once, a query for every method would flush the pending inserts one by one.
+        Set<String> existingServices = new HashSet<>();
+        for (Object existing : session.createCriteria(io.robe.admin.hibernate.entity.Service.class).list()) {
+            io.robe.admin.hibernate.entity.Service existingService = (io.robe.admin.hibernate.entity.Service) existing;
+            existingServices.add(existingService.getMethod() + " " + existingService.getPath());
+        }
         for (Class<?> service : services) {
 
             String parentPath = "/" + service.getAnnotation(Path.class).value();
@@ -139,14 +146,8 @@ public class InitializeCommand<T extends RobeConfiguration> extends EnvironmentC
                         path = path.replaceAll("//", "/");
                     }
 
-                    io.robe.admin.hibernate.entity.Service entity =
-                            (io.robe.admin.hibernate.entity.Service) session.createCriteria(io.robe.admin.hibernate.entity.Service.class)
-                                    .add(Restrictions.eq("path", path))
-                                    .add(Restrictions.eq("method", io.robe.admin.hibernate.entity.Service.Method.valueOf(httpMethod)))
-                                    .uniqueResult();
-
-                    if (entity == null) {
-                        entity = new io.robe.admin.hibernate.entity.Service();
+                    if (existingServices.add(httpMethod + " " + path)) {
+                        io.robe.admin.hibernate.entity.Service entity = new io.robe.admin.hibernate.entity.Service();
                         entity.setPath(path);
                         entity.setMethod(io.robe.admin.hibernate.entity.Service.Method.valueOf(httpMethod));
                         RobeService robeService = (RobeService) method.getAnnotation(RobeService.class);
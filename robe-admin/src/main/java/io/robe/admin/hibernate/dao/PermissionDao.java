@@ -1,20 +1,32 @@
 package io.robe.admin.hibernate.dao;
 
+import com.google.common.base.Function;
 import javax.inject.Inject;
 import io.robe.admin.hibernate.entity.Permission;
 import io.robe.auth.data.entry.PermissionEntry;
-import io.robe.auth.data.store.PermissionStore;
+import io.robe.auth.data.store.BulkPermissionStore;
 import io.robe.hibernate.dao.BaseDao;
 import io.robe.hibernate.entity.BaseEntity;
 import org.hibernate.Criteria;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Restrictions;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-public class PermissionDao extends BaseDao<Permission> implements PermissionStore {
+public class PermissionDao extends BaseDao<Permission> implements BulkPermissionStore {
+
+    private static final Function<Permission, String> RESTRICTED_ITEM = new Function<Permission, String>() {
+        @Override
+        public String apply(Permission permission) {
+            return permission.getRestrictedItemOid();
+        }
+    };
 
     @Inject
     public PermissionDao(SessionFactory sessionFactory) {
@@ -34,18 +46,49 @@ public class PermissionDao extends BaseDao<Permission> implements PermissionStor
         return list(criteria);
     }
 
-    public void deleteRestrictionsByRole(String roleOid, Permission.Type type) {
+    public List<Permission> findByRoleAndType(String roleOid, Permission.Type type) {
         Criteria criteria = currentSession().createCriteria(Permission.class);
         criteria.add(Restrictions.eq("roleOid", roleOid));
         criteria.add(Restrictions.eq("type", type));
-        List<Permission> permissions = list(criteria);
-        for (Permission permission : permissions) {
-            delete(permission);
+        return list(criteria);
+    }
+
+    public int deleteRestrictionsByRole(String roleOid, Permission.Type type) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("roleOid", roleOid);
+        properties.put("type", type);
+        return deleteAllBy(properties);
+    }
+
+    /**
+     * Replaces the permissions of the role and type with the given restricted items. Only the differences are
+     * written, unchanged permissions are kept.
+     *
+     * @param roleOid  oid of the role
+     * @param type     type of the restricted items
+     * @param itemOids oids of the restricted items
+     * @return permissions of the role and type
+     */
+    public List<Permission> replaceRestrictionsByRole(String roleOid, Permission.Type type, Collection<String> itemOids) {
+        List<Permission> permissions = new ArrayList<>(itemOids.size());
+        for (String itemOid : itemOids) {
+            Permission permission = new Permission();
+            permission.setRoleOid(roleOid);
+            permission.setType(type);
+            permission.setpLevel((short) 7);
+            permission.setRestrictedItemOid(itemOid);
+            permissions.add(permission);
         }
+        return replaceAll(findByRoleAndType(roleOid, type), permissions, RESTRICTED_ITEM);
     }
 
     @Override
     public Set<? extends PermissionEntry> findByRoleId(String id) {
         return new HashSet<>(findByRoleOId(id));
     }
+
+    @Override
+    public Set<? extends PermissionEntry> findByRoleIds(Collection<String> ids) {
+        return new HashSet<>(findAllIn("roleOid", ids));
+    }
 }
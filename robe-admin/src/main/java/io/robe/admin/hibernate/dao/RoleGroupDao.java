@@ -3,18 +3,19 @@ package io.robe.admin.hibernate.dao;
 import javax.inject.Inject;
 import io.robe.admin.hibernate.entity.RoleGroup;
 import io.robe.auth.data.entry.RoleGroupEntry;
-import io.robe.auth.data.store.RoleGroupStore;
+import io.robe.auth.data.store.BulkRoleGroupStore;
 import io.robe.hibernate.dao.BaseDao;
 import org.hibernate.Criteria;
 import org.hibernate.SessionFactory;
 import org.hibernate.criterion.Restrictions;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 
-public class RoleGroupDao extends BaseDao<RoleGroup> implements RoleGroupStore {
+public class RoleGroupDao extends BaseDao<RoleGroup> implements BulkRoleGroupStore {
     /**
      * Constructor with session factory injection by guice
      *
@@ -36,4 +37,9 @@ public class RoleGroupDao extends BaseDao<RoleGroup> implements RoleGroupStore {
     public Set<? extends RoleGroupEntry> findByGroupId(String groupOid) {
         return new HashSet<>(findByGroupOId(groupOid));
     }
+
+    @Override
+    public Set<? extends RoleGroupEntry> findByGroupIds(Collection<String> groupOids) {
+        return new HashSet<>(findAllIn("groupOid", groupOids));
+    }
 }
@@ -3,7 +3,7 @@ package io.robe.admin.hibernate.dao;
 import com.google.common.base.Optional;
 import javax.inject.Inject;
 import io.robe.admin.hibernate.entity.Service;
-import io.robe.auth.data.store.ServiceStore;
+import io.robe.auth.data.store.BulkServiceStore;
 import io.robe.hibernate.dao.BaseDao;
 import org.hibernate.Criteria;
 import org.hibernate.SessionFactory;
@@ -11,9 +11,10 @@ import org.hibernate.criterion.Projections;
 import org.hibernate.criterion.Restrictions;
 import org.hibernate.transform.Transformers;
 
+import java.util.Collection;
 import java.util.List;
 
-public class ServiceDao extends BaseDao<Service> implements ServiceStore {
+public class ServiceDao extends BaseDao<Service> implements BulkServiceStore {
 
     @Inject
     public ServiceDao(SessionFactory sessionFactory) {
@@ -24,6 +25,11 @@ public class ServiceDao extends BaseDao<Service> implements ServiceStore {
         return Optional.fromNullable(findById(code));
     }
 
+    @Override
+    public List<Service> findByCodes(Collection<String> codes) {
+        return findAllIn("oid", codes);
+    }
+
     public Service findByPathAndMethod(String path, Service.Method method) {
         Criteria criteria = currentSession().createCriteria(Service.class);
         criteria.add(Restrictions.eq("path", path));
@@ -3,6 +3,7 @@ package io.robe.admin.hibernate.entity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import io.robe.auth.data.entry.RoleEntry;
 import io.robe.hibernate.entity.BaseEntity;
+import io.robe.hibernate.search.SearchIndexed;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotEmpty;
 
@@ -11,6 +12,7 @@ import javax.persistence.Entity;
 import javax.persistence.Table;
 
 @Entity
+@SearchIndexed
 @Table
 public class Role extends BaseEntity implements RoleEntry {
 
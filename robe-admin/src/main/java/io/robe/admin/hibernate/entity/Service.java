@@ -2,6 +2,7 @@ package io.robe.admin.hibernate.entity;
 
 import io.robe.auth.data.entry.ServiceEntry;
 import io.robe.hibernate.entity.BaseEntity;
+import io.robe.hibernate.search.SearchIndexed;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -9,6 +10,7 @@ import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 
 @Entity
+@SearchIndexed
 public class Service extends BaseEntity implements ServiceEntry {
 
     @Column(length = 100, nullable = false)
@@ -6,6 +6,7 @@ import io.robe.auth.data.entry.UserEntry;
 import io.robe.common.service.search.SearchFrom;
 import io.robe.common.service.search.SearchIgnore;
 import io.robe.hibernate.entity.BaseEntity;
+import io.robe.hibernate.search.SearchIndexed;
 import org.hibernate.validator.constraints.Length;
 import org.hibernate.validator.constraints.NotEmpty;
 
@@ -17,6 +18,7 @@ import javax.validation.constraints.Pattern;
 import java.util.Date;
 
 @Entity
+@SearchIndexed
 @Table
 public class User extends BaseEntity implements UserEntry {
 
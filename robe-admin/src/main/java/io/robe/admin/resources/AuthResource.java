@@ -11,9 +11,9 @@ import io.robe.admin.util.SystemParameterCache;
 import io.robe.auth.AbstractAuthResource;
 import io.robe.auth.Credentials;
 import io.robe.auth.RobeAuth;
-import io.robe.auth.token.BasicToken;
 import io.robe.auth.token.Token;
 import io.robe.auth.token.TokenManager;
+import io.robe.auth.token.invalidation.PermissionInvalidator;
 import io.robe.auth.token.jersey.TokenBasedAuthResponseFilter;
 import org.hibernate.FlushMode;
 import org.joda.time.DateTime;
@@ -135,7 +135,7 @@ public class AuthResource extends AbstractAuthResource<User> {
         if (!user.isPresent()) {
             throw new WebApplicationException(Response.Status.UNAUTHORIZED);
         } else {
-            BasicToken.clearPermissionCache(credentials.getUsername());
+            PermissionInvalidator.invalidateUser(credentials.getUsername());
             user.get().setLastLogoutTime(DateTime.now().toDate());
             logAction(new ActionLog("LOGOUT", null, user.get().toString(), true, request.getRemoteAddr()));
             return user.get();
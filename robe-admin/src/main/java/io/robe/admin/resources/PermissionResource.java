@@ -9,10 +9,9 @@ import io.robe.admin.hibernate.dao.PermissionDao;
 import io.robe.admin.hibernate.dao.ServiceDao;
 import io.robe.admin.hibernate.entity.Menu;
 import io.robe.admin.hibernate.entity.Permission;
-import io.robe.admin.hibernate.entity.Service;
 import io.robe.auth.Credentials;
 import io.robe.auth.RobeAuth;
-import io.robe.auth.token.BasicToken;
+import io.robe.auth.token.invalidation.PermissionInvalidator;
 import io.robe.common.service.RobeService;
 import io.robe.common.service.search.SearchParam;
 import io.robe.common.service.search.model.SearchModel;
@@ -25,6 +24,9 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -110,43 +112,11 @@ public class PermissionResource {
     @Path("{roleOid}")
     public Response createOrUpdateServiceAndMenu(@RobeAuth Credentials credentials, @Valid PermissionUpdateDto updateDto, @PathParam("roleOid") String roleOid) {
 
-        // delete old menu
-        permissionDao.deleteRestrictionsByRole(roleOid, Permission.Type.MENU);
+        // only the added and removed items are written
+        permissionDao.replaceRestrictionsByRole(roleOid, Permission.Type.MENU, updateDto.getMenus());
+        permissionDao.replaceRestrictionsByRole(roleOid, Permission.Type.SERVICE, updateDto.getServices());
 
-        // save menu
-
-        for (String itemOid : updateDto.getMenus()) {
-            Menu menu = menuDao.findById(itemOid);
-            Permission permission = permissionDao.findByRoleAndItem(roleOid, menu);
-            if (permission == null) {
-                permission = new Permission();
-            }
-            permission.setRoleOid(roleOid);
-            permission.setType(Permission.Type.MENU);
-            permission.setpLevel((short) 7);
-            permission.setRestrictedItemOid(itemOid);
-            permissionDao.create(permission);
-        }
-
-        // delete old services
-        permissionDao.deleteRestrictionsByRole(roleOid, Permission.Type.SERVICE);
-
-        // save services
-        for (String itemOid : updateDto.getServices()) {
-            Service service = serviceDao.findById(itemOid);
-            Permission permission = permissionDao.findByRoleAndItem(roleOid, service);
-            if (permission == null) {
-                permission = new Permission();
-            }
-            permission.setRoleOid(roleOid);
-            permission.setType(Permission.Type.SERVICE);
-            permission.setpLevel((short) 7);
-            permission.setRestrictedItemOid(itemOid);
-            permissionDao.create(permission);
-
-        }
-
-        BasicToken.clearAllPermissionCache();
+        invalidateRolesAfterCommit(Collections.singleton(roleOid));
 
         return Response.ok().build();
     }
@@ -202,6 +172,7 @@ public class PermissionResource {
     @POST
     @UnitOfWork
     public Permission create(@RobeAuth Credentials credentials, @Valid Permission model) {
+        invalidateRolesAfterCommit(Collections.singleton(model.getRoleOid()));
         return permissionDao.create(model);
     }
 
@@ -229,6 +200,7 @@ public class PermissionResource {
         if (entity == null) {
             throw new WebApplicationException(Response.status(404).build());
         }
+        invalidateRolesAfterCommit(Arrays.asList(entity.getRoleOid(), model.getRoleOid()));
         return permissionDao.update(model);
     }
 
@@ -255,6 +227,7 @@ public class PermissionResource {
         if (dest == null) {
             throw new WebApplicationException(Response.status(404).build());
         }
+        invalidateRolesAfterCommit(Arrays.asList(dest.getRoleOid(), model.getRoleOid()));
         FieldReflection.mergeRight(model, dest);
         return permissionDao.update(model);
     }
@@ -284,6 +257,21 @@ public class PermissionResource {
         if (entity == null) {
             throw new WebApplicationException(Response.status(404).build());
         }
+        invalidateRolesAfterCommit(Collections.singleton(entity.getRoleOid()));
         return permissionDao.delete(entity);
     }
+
+    /**
+     * Invalidates the cached permissions of the roles after the transaction commits, so reloads don't see the old rows.
+     *
+     * @param roleIds ids of the changed roles
+     */
+    private void invalidateRolesAfterCommit(final Collection<String> roleIds) {
+        permissionDao.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                PermissionInvalidator.invalidateRoles(roleIds);
+            }
+        });
+    }
 }
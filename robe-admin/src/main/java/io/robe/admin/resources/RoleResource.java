@@ -7,6 +7,7 @@ import io.robe.admin.hibernate.entity.*;
 import io.robe.auth.Credentials;
 import io.robe.auth.RobeAuth;
 import io.robe.auth.data.entry.PermissionEntry;
+import io.robe.auth.token.invalidation.PermissionInvalidator;
 import io.robe.common.service.RobeService;
 import io.robe.common.service.search.SearchParam;
 import io.robe.common.service.search.model.SearchModel;
@@ -19,6 +20,8 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -182,6 +185,7 @@ public class RoleResource {
         if (entity == null) {
             throw new WebApplicationException(Response.status(404).build());
         }
+        invalidateRolesAfterCommit(Collections.singleton(id));
         return roleDao.update(model);
     }
 
@@ -211,6 +215,7 @@ public class RoleResource {
             throw new WebApplicationException(Response.status(404).build());
         }
         FieldReflection.mergeRight(model, dest);
+        invalidateRolesAfterCommit(Collections.singleton(id));
         return roleDao.update(model);
     }
 
@@ -238,7 +243,21 @@ public class RoleResource {
         if (entity == null) {
             throw new WebApplicationException(Response.status(404).build());
         }
+        invalidateRolesAfterCommit(Collections.singleton(id));
         return roleDao.delete(entity);
     }
 
+    /**
+     * Invalidates the cached permissions of the roles after the transaction commits, so reloads don't see the old rows.
+     *
+     * @param roleIds ids of the changed roles
+     */
+    private void invalidateRolesAfterCommit(final Collection<String> roleIds) {
+        roleDao.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                PermissionInvalidator.invalidateRoles(roleIds);
+            }
+        });
+    }
 }
@@ -7,6 +7,7 @@ import io.robe.admin.hibernate.entity.Service;
 import io.robe.auth.Credentials;
 import io.robe.auth.RobeAuth;
 import io.robe.auth.data.entry.ServiceEntry;
+import io.robe.auth.token.invalidation.PermissionInvalidator;
 import io.robe.common.service.RobeService;
 import io.robe.common.service.search.SearchParam;
 import io.robe.common.service.search.model.SearchModel;
@@ -22,6 +23,8 @@ import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
 import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
@@ -109,6 +112,7 @@ public class ServiceResource {
         if (entity == null) {
             throw new WebApplicationException(Response.status(404).build());
         }
+        invalidateServicesAfterCommit(Collections.singleton(id));
         return serviceDao.update(model);
     }
 
@@ -136,6 +140,7 @@ public class ServiceResource {
             throw new WebApplicationException(Response.status(404).build());
         }
         FieldReflection.mergeRight(model, dest);
+        invalidateServicesAfterCommit(Collections.singleton(id));
         return serviceDao.update(model);
     }
 
@@ -164,6 +169,7 @@ public class ServiceResource {
         if (entity == null) {
             throw new WebApplicationException(Response.status(404).build());
         }
+        invalidateServicesAfterCommit(Collections.singleton(id));
         return serviceDao.delete(entity);
     }
 
@@ -266,4 +272,18 @@ public class ServiceResource {
 
         return null;
     }
+
+    /**
+     * Invalidates the cached permissions of the services after the transaction commits, so reloads don't see the old rows.
+     *
+     * @param serviceIds ids of the changed services
+     */
+    private void invalidateServicesAfterCommit(final Collection<String> serviceIds) {
+        serviceDao.afterCommit(new Runnable() {
+            @Override
+            public void run() {
+                PermissionInvalidator.invalidateServices(serviceIds);
+            }
+        });
+    }
 }
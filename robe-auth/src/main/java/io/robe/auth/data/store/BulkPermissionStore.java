@@ -0,0 +1,14 @@
+package io.robe.auth.data.store;
+
+import io.robe.auth.data.entry.PermissionEntry;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Optional extension of {@link PermissionStore} which loads the permissions of many roles at once.
+ * Stores which do not implement it are queried role by role.
+ */
+public interface BulkPermissionStore extends PermissionStore {
+    Set<? extends PermissionEntry> findByRoleIds(Collection<String> ids);
+}
@@ -0,0 +1,14 @@
+package io.robe.auth.data.store;
+
+import io.robe.auth.data.entry.RoleGroupEntry;
+
+import java.util.Collection;
+import java.util.Set;
+
+/**
+ * Optional extension of {@link RoleGroupStore} which loads the sub roles of many groups at once.
+ * Stores which do not implement it are queried group by group.
+ */
+public interface BulkRoleGroupStore extends RoleGroupStore {
+    Set<? extends RoleGroupEntry> findByGroupIds(Collection<String> groupOids);
+}
@@ -0,0 +1,14 @@
+package io.robe.auth.data.store;
+
+import io.robe.auth.data.entry.ServiceEntry;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Optional extension of {@link ServiceStore} which loads many services at once.
+ * Stores which do not implement it are queried service by service.
+ */
+public interface BulkServiceStore extends ServiceStore {
+    List<? extends ServiceEntry> findByCodes(Collection<String> ids);
+}
@@ -4,6 +4,8 @@ package io.robe.auth.data.store;
 import com.google.common.base.Optional;
 import io.robe.auth.data.entry.ServiceEntry;
 
+import java.util.List;
+
 public interface ServiceStore {
     Optional<? extends ServiceEntry> findByCode(String id);
 }
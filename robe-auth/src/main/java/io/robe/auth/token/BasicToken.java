@@ -64,13 +64,39 @@ public class BasicToken implements Token {
      * @throws Exception throws in case of failing opening token
      */
     public BasicToken(String tokenString) throws Exception {
-        tokenString = tokenString.replaceAll("\"", "");
-        tokenString = new String(BaseEncoding.base16().decode(tokenString));
-        String[] parts = ENCRYPTOR.decrypt(tokenString).split(SEPARATOR);
-        this.userId = parts[0];
-        this.username = parts[1];
-        this.expireAt = new DateTime(Long.valueOf(parts[2]));
-        this.attributesHash = parts[3];
+        this(decrypt(tokenString));
+    }
+
+    /**
+     * Creates an access token with the already decoded token fields.
+     *
+     * @param entry decoded token fields
+     */
+    protected BasicToken(TokenCache.Entry entry) {
+        this.userId = entry.getUserId();
+        this.username = entry.getUsername();
+        this.expireAt = new DateTime(entry.getExpireAt());
+        this.attributesHash = entry.getAttributesHash();
+    }
+
+    /**
+     * Decrypts the given tokenString or takes its fields from cache if present.
+     *
+     * @param tokenString to parse
+     * @return decoded token fields
+     */
+    private static TokenCache.Entry decrypt(String tokenString) {
+        if (tokenString.indexOf('"') >= 0) {
+            tokenString = tokenString.replace("\"", "");
+        }
+        TokenCache.Entry entry = TokenCache.get(tokenString);
+        if (entry == null) {
+            String decoded = new String(BaseEncoding.base16().decode(tokenString));
+            String[] parts = ENCRYPTOR.decrypt(decoded).split(SEPARATOR);
+            entry = new TokenCache.Entry(parts[0], parts[1], Long.valueOf(parts[2]), parts[3]);
+            TokenCache.put(tokenString, entry);
+        }
+        return entry;
     }
 
     /**
@@ -87,6 +113,15 @@ public class BasicToken implements Token {
         }
         ENCRYPTOR.setAlgorithm(configuration.getAlgorithm());
         ENCRYPTOR.initialize();
+        initialize(configuration);
+    }
+
+    /**
+     * Sets default max age and creates the permission cache. Must be called by configure methods of sub classes.
+     *
+     * @param configuration confiuration for auth bundle
+     */
+    protected static void initialize(TokenBasedAuthConfiguration configuration) {
         BasicToken.defaultMaxAge = configuration.getMaxage();
 
         //Create cache for permissions.
@@ -158,16 +193,19 @@ public class BasicToken implements Token {
     }
 
     public String getTokenString() throws Exception {
-        return tokenString == null ? generateTokenString() : tokenString;
+        if (tokenString == null) {
+            tokenString = generateTokenString();
+        }
+        return tokenString;
     }
 
     /**
-     * Generates a tokenString with a new expiration date and assigns it.
+     * Generates a tokenString with the current fields.
      *
      * @return new tokenString
      * @throws Exception
      */
-    private String generateTokenString() throws Exception {
+    protected String generateTokenString() throws Exception {
         //Renew age
         //Stringify token data
         StringBuilder dataString = new StringBuilder();
@@ -182,9 +220,7 @@ public class BasicToken implements Token {
 
         // Encrypt token data string
         String newTokenString = ENCRYPTOR.encrypt(dataString.toString());
-        newTokenString = BaseEncoding.base16().encode(newTokenString.getBytes());
-        tokenString = newTokenString;
-        return newTokenString;
+        return BaseEncoding.base16().encode(newTokenString.getBytes());
     }
 
     public int getMaxAge() {
@@ -0,0 +1,319 @@
+package io.robe.auth.token;
+
+import com.google.common.base.Optional;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+import io.robe.auth.data.entry.PermissionEntry;
+import io.robe.auth.data.entry.RoleGroupEntry;
+import io.robe.auth.data.entry.ServiceEntry;
+import io.robe.auth.data.store.BulkPermissionStore;
+import io.robe.auth.data.store.BulkRoleGroupStore;
+import io.robe.auth.data.store.BulkServiceStore;
+import io.robe.auth.data.store.PermissionStore;
+import io.robe.auth.data.store.RoleGroupStore;
+import io.robe.auth.data.store.ServiceStore;
+import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Index of flattened service permissions by role. Permissions of a role and all of its sub roles are loaded with
+ * set based queries (one query for each level of role groups, one for permissions and one for services)
+ * and shared by all users of the role. Stores which don't implement {@link BulkRoleGroupStore},
+ * {@link BulkPermissionStore} or {@link BulkServiceStore} are queried id by id.
+ * Index also keeps the sub roles and services of every role and the usernames which hold the role, so a change
+ * can be invalidated only for the affected roles and users with {@link #invalidateRoles(Collection)} and
+ * {@link #invalidateServices(Collection)}.
+ */
+public class RolePermissionIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RolePermissionIndex.class);
+
+    /**
+     * Max roles kept in the index until it is configured.
+     */
+    public static final int DEFAULT_SIZE = 1000;
+
+    /**
+     * Time to live of a role in seconds if the token max age is not given.
+     */
+    public static final int DEFAULT_EXPIRATION = 600;
+
+    private static final ConcurrentMap<String, Set<String>> holders = new ConcurrentHashMap<>();
+    private static volatile Cache<String, Entry> cache = createCache(DEFAULT_SIZE, DEFAULT_EXPIRATION);
+    private static final AtomicLong generation = new AtomicLong();
+
+    private final PermissionStore permissionStore;
+    private final RoleGroupStore roleGroupStore;
+    private final ServiceStore serviceStore;
+
+    public RolePermissionIndex(PermissionStore permissionStore, RoleGroupStore roleGroupStore, ServiceStore serviceStore) {
+        this.permissionStore = permissionStore;
+        this.roleGroupStore = roleGroupStore;
+        this.serviceStore = serviceStore;
+    }
+
+    /**
+     * Recreates the index with the size of the configuration. Roles expire with the max age of the token, so an
+     * invalidation which is missed or applied too early is not kept longer than a token.
+     *
+     * @param configuration configuration for auth bundle
+     */
+    public static void configure(TokenBasedAuthConfiguration configuration) {
+        int expiration = configuration.getMaxage() > 0 ? configuration.getMaxage() : DEFAULT_EXPIRATION;
+        Cache<String, Entry> old = cache;
+        generation.incrementAndGet();
+        cache = createCache(configuration.getPermissionIndexSize(), expiration);
+        old.invalidateAll();
+        old.cleanUp();
+    }
+
+    private static Cache<String, Entry> createCache(int size, int expiration) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(size)
+                .expireAfterWrite(expiration, TimeUnit.SECONDS)
+                .removalListener(new RemovalListener<String, Entry>() {
+                    @Override
+                    public void onRemoval(RemovalNotification<String, Entry> notification) {
+                        // Users of an evicted role hold permissions which can't be invalidated any more.
+                        if (notification.wasEvicted()) {
+                            generation.incrementAndGet();
+                            clearHolders(notification.getKey());
+                        }
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Clears the whole index. Permissions will be loaded again on demand.
+     */
+    public static void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+        cache.cleanUp();
+        holders.clear();
+    }
+
+    /**
+     * Invalidates the given roles and all roles which include them through role groups. Cached permissions of
+     * the users of these roles are cleared, other users are not affected.
+     *
+     * @param roleIds ids of the changed roles
+     */
+    public static void invalidateRoles(Collection<String> roleIds) {
+        Set<String> affected = new HashSet<>();
+        for (String roleId : roleIds) {
+            if (roleId != null) {
+                affected.add(roleId);
+            }
+        }
+        generation.incrementAndGet();
+        for (Map.Entry<String, Entry> entry : cache.asMap().entrySet()) {
+            if (!Collections.disjoint(entry.getValue().roles, affected)) {
+                affected.add(entry.getKey());
+            }
+        }
+        invalidate(affected);
+    }
+
+    /**
+     * Invalidates all roles which have permission to one of the given services. Cached permissions of
+     * the users of these roles are cleared, other users are not affected.
+     *
+     * @param serviceIds ids of the changed services
+     */
+    public static void invalidateServices(Collection<String> serviceIds) {
+        Set<String> affected = new HashSet<>();
+        generation.incrementAndGet();
+        for (Map.Entry<String, Entry> entry : cache.asMap().entrySet()) {
+            if (!Collections.disjoint(entry.getValue().services, serviceIds)) {
+                affected.add(entry.getKey());
+            }
+        }
+        invalidate(affected);
+    }
+
+    private static void invalidate(Set<String> roleIds) {
+        LOGGER.debug("Invalidating permissions of roles: " + roleIds);
+        cache.invalidateAll(roleIds);
+        for (String roleId : roleIds) {
+            clearHolders(roleId);
+        }
+    }
+
+    /**
+     * Removes the holders of the role and clears their cached permissions. Users register again at their next load.
+     *
+     * @param roleId id of the role
+     */
+    private static void clearHolders(String roleId) {
+        Set<String> usernames = holders.remove(roleId);
+        if (usernames != null) {
+            for (String username : usernames) {
+                BasicToken.clearPermissionCache(username);
+            }
+        }
+    }
+
+    /**
+     * Loads the permissions of the given role into the permission cache of the token user. If the index is
+     * invalidated while loading, the user may have been cleared before the put, so the permissions are loaded again.
+     *
+     * @param roleId id of the role
+     * @param token  token of the user which holds the role
+     * @return unmodifiable permission set
+     */
+    public Set<String> setPermissions(String roleId, Token token) {
+        while (true) {
+            long current = generation.get();
+            Set<String> permissions = getPermissions(roleId, token.getUsername());
+            token.setPermissions(permissions);
+            if (current == generation.get()) {
+                return permissions;
+            }
+            BasicToken.clearPermissionCache(token.getUsername());
+        }
+    }
+
+    /**
+     * Returns the flattened service permissions of the given role and registers the user as a holder of the role.
+     * Permissions of the user will be cleared when the role is invalidated.
+     *
+     * @param roleId   id of the role
+     * @param username username of the user which holds the role
+     * @return unmodifiable permission set
+     */
+    public Set<String> getPermissions(String roleId, String username) {
+        while (true) {
+            Set<String> usernames = holders.get(roleId);
+            if (usernames == null) {
+                usernames = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+                Set<String> existing = holders.putIfAbsent(roleId, usernames);
+                if (existing != null) {
+                    usernames = existing;
+                }
+            }
+            usernames.add(username);
+            // Holders may be cleared at the same time, register again to the new set.
+            if (holders.get(roleId) == usernames) {
+                break;
+            }
+        }
+        return getPermissions(roleId);
+    }
+
+    /**
+     * Returns the flattened service permissions (path:METHOD) of the given role and all its sub roles.
+     *
+     * @param roleId id of the role
+     * @return unmodifiable permission set
+     */
+    public Set<String> getPermissions(String roleId) {
+        Entry entry = cache.getIfPresent(roleId);
+        if (entry == null) {
+            long current = generation.get();
+            entry = load(roleId);
+            // Do not cache if the index is invalidated while loading.
+            if (current == generation.get()) {
+                cache.put(roleId, entry);
+            }
+        }
+        return entry.permissions;
+    }
+
+    private Entry load(String roleId) {
+        LOGGER.debug("Loading permissions of role: " + roleId);
+
+        // Collect the role and all sub roles level by level.
+        Set<String> roles = new HashSet<>();
+        roles.add(roleId);
+        Set<String> level = Collections.singleton(roleId);
+        while (!level.isEmpty()) {
+            Set<String> next = new HashSet<>();
+            for (RoleGroupEntry entry : findByGroupIds(level)) {
+                if (roles.add(entry.getRoleId())) {
+                    next.add(entry.getRoleId());
+                }
+            }
+            level = next;
+        }
+
+        Set<String> serviceIds = new HashSet<>();
+        for (PermissionEntry permission : findByRoleIds(roles)) {
+            if (permission.getType().equals(PermissionEntry.Type.SERVICE)) {
+                serviceIds.add(permission.getRestrictedItemId());
+            }
+        }
+
+        Set<String> permissions = new HashSet<>();
+        if (!serviceIds.isEmpty()) {
+            for (ServiceEntry service : findByCodes(serviceIds)) {
+                permissions.add(service.getPath() + ":" + service.getMethod());
+            }
+        }
+        return new Entry(roles, serviceIds, Collections.unmodifiableSet(permissions));
+    }
+
+    private Collection<? extends RoleGroupEntry> findByGroupIds(Set<String> groupIds) {
+        if (roleGroupStore instanceof BulkRoleGroupStore) {
+            return ((BulkRoleGroupStore) roleGroupStore).findByGroupIds(groupIds);
+        }
+        List<RoleGroupEntry> entries = new ArrayList<>();
+        for (String groupId : groupIds) {
+            entries.addAll(roleGroupStore.findByGroupId(groupId));
+        }
+        return entries;
+    }
+
+    private Collection<? extends PermissionEntry> findByRoleIds(Set<String> roleIds) {
+        if (permissionStore instanceof BulkPermissionStore) {
+            return ((BulkPermissionStore) permissionStore).findByRoleIds(roleIds);
+        }
+        List<PermissionEntry> entries = new ArrayList<>();
+        for (String roleId : roleIds) {
+            entries.addAll(permissionStore.findByRoleId(roleId));
+        }
+        return entries;
+    }
+
+    private Collection<? extends ServiceEntry> findByCodes(Set<String> serviceIds) {
+        if (serviceStore instanceof BulkServiceStore) {
+            return ((BulkServiceStore) serviceStore).findByCodes(serviceIds);
+        }
+        List<ServiceEntry> entries = new ArrayList<>();
+        for (String serviceId : serviceIds) {
+            Optional<? extends ServiceEntry> service = serviceStore.findByCode(serviceId);
+            if (service.isPresent()) {
+                entries.add(service.get());
+            }
+        }
+        return entries;
+    }
+
+    private static class Entry {
+        private final Set<String> roles;
+        private final Set<String> services;
+        private final Set<String> permissions;
+
+        private Entry(Set<String> roles, Set<String> services, Set<String> permissions) {
+            this.roles = roles;
+            this.services = services;
+            this.permissions = permissions;
+        }
+    }
+}
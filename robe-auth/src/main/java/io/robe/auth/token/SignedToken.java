@@ -0,0 +1,148 @@
+package io.robe.auth.token;
+
+import com.google.common.io.BaseEncoding;
+import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+import org.joda.time.DateTime;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * A token implementation which signs a compact binary payload with a keyed MAC instead of encrypting it.
+ * Token string is the URL safe base64 form of the payload followed by its signature.
+ * Payload is readable by the client but can not be changed without the server password.
+ * Permission caching and max age behaves same as {@link BasicToken}.
+ */
+public class SignedToken extends BasicToken {
+
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+    private static final BaseEncoding HASH_ENCODING = BaseEncoding.base16().lowerCase();
+
+    private static int signatureLength;
+    private static ThreadLocal<Mac> mac;
+
+    /**
+     * Creates an access token with the given parameters.
+     *
+     * @param userId     User id
+     * @param username   Username
+     * @param expireAt   expiration time of token
+     * @param attributes extra attributes to customize token
+     */
+    public SignedToken(String userId, String username, DateTime expireAt, Map<String, String> attributes) {
+        super(userId, username, expireAt, attributes);
+    }
+
+    /**
+     * Creates an access token with the given tokenString.
+     *
+     * @param tokenString to parse
+     * @throws Exception throws in case of failing opening token or invalid signature
+     */
+    public SignedToken(String tokenString) throws Exception {
+        super(verify(tokenString));
+    }
+
+    /**
+     * Configure method for MAC key and algorithm.
+     *
+     * @param configuration confiuration for auth bundle
+     */
+    public static void configure(TokenBasedAuthConfiguration configuration) {
+        byte[] secret;
+        if (configuration.getServerPassword().equals("auto")) {
+            secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+        } else {
+            secret = configuration.getServerPassword().getBytes(StandardCharsets.UTF_8);
+        }
+        final SecretKeySpec key = new SecretKeySpec(secret, configuration.getMacAlgorithm());
+        try {
+            signatureLength = Mac.getInstance(key.getAlgorithm()).getMacLength();
+        } catch (GeneralSecurityException e) {
+            throw new RuntimeException("Unsupported MAC algorithm: " + key.getAlgorithm(), e);
+        }
+        // Mac instances are not thread safe, every thread creates its own instance once.
+        mac = new ThreadLocal<Mac>() {
+            @Override
+            protected Mac initialValue() {
+                try {
+                    Mac instance = Mac.getInstance(key.getAlgorithm());
+                    instance.init(key);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("Can not initialize MAC: " + key.getAlgorithm(), e);
+                }
+            }
+        };
+        initialize(configuration);
+    }
+
+    /**
+     * Checks the signature of the given tokenString and reads the payload.
+     *
+     * @param tokenString to parse
+     * @return decoded token fields
+     * @throws Exception throws in case of invalid signature or payload
+     */
+    private static TokenCache.Entry verify(String tokenString) throws Exception {
+        if (tokenString.indexOf('"') >= 0) {
+            tokenString = tokenString.replace("\"", "");
+        }
+        byte[] data = ENCODING.decode(tokenString);
+        if (data.length <= signatureLength) {
+            throw new IllegalArgumentException("Invalid token");
+        }
+        int payloadLength = data.length - signatureLength;
+        Mac instance = mac.get();
+        instance.update(data, 0, payloadLength);
+        byte[] signature = instance.doFinal();
+        if (!MessageDigest.isEqual(signature, Arrays.copyOfRange(data, payloadLength, data.length))) {
+            throw new SecurityException("Invalid token signature");
+        }
+
+        DataInputStream payload = new DataInputStream(new ByteArrayInputStream(data, 0, payloadLength));
+        long expireAt = payload.readLong();
+        String userId = payload.readUTF();
+        String username = payload.readUTF();
+        byte[] attributesHash = new byte[payload.readUnsignedByte()];
+        payload.readFully(attributesHash);
+        return new TokenCache.Entry(userId, username, expireAt, HASH_ENCODING.encode(attributesHash));
+    }
+
+    /**
+     * Generates a signed tokenString with the current fields.
+     *
+     * @return new tokenString
+     * @throws Exception
+     */
+    @Override
+    protected String generateTokenString() throws Exception {
+        byte[] attributesHash = HASH_ENCODING.decode(getAttributesHash());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + attributesHash.length + signatureLength);
+        DataOutputStream payload = new DataOutputStream(bytes);
+        payload.writeLong(getExpirationDate().getTime());
+        payload.writeUTF(getUserId());
+        payload.writeUTF(getUsername());
+        payload.writeByte(attributesHash.length);
+        payload.write(attributesHash);
+        payload.write(mac.get().doFinal(bytes.toByteArray()));
+        payload.flush();
+        return ENCODING.encode(bytes.toByteArray());
+    }
+
+    @Override
+    public String getName() {
+        return "SignedToken";
+    }
+}
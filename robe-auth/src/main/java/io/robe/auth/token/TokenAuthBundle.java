@@ -7,6 +7,8 @@ import io.dropwizard.setup.Environment;
 import io.robe.auth.Credentials;
 import io.robe.auth.token.configuration.HasTokenBasedAuthConfiguration;
 import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+import io.robe.auth.token.invalidation.PermissionInvalidator;
+import io.robe.auth.token.jersey.PermissionMatcher;
 import io.robe.auth.token.jersey.TokenBasedAuthResponseFilter;
 import io.robe.auth.token.jersey.TokenFactoryProvider;
 import io.robe.auth.token.jersey.TokenFeature;
@@ -27,7 +29,12 @@ public class TokenAuthBundle<T extends Configuration & HasTokenBasedAuthConfigur
         environment.jersey().register(new TokenFactoryProvider.Binder<Credentials>(Credentials.class));
         environment.jersey().register(new TokenBasedAuthResponseFilter(configuration.getTokenBasedAuthConfiguration()));
         environment.jersey().register(TokenFeature.class);
-        TokenManager.configure(BasicToken.class, configuration.getTokenBasedAuthConfiguration());
+        environment.jersey().register(new PermissionMatcher());
+        TokenCache.configure(configuration.getTokenBasedAuthConfiguration(), environment.metrics());
+        Class<? extends Token> tokenClass = Class.forName(this.configuration.getTokenClass()).asSubclass(Token.class);
+        TokenManager.configure(tokenClass, this.configuration);
+        RolePermissionIndex.configure(this.configuration);
+        environment.lifecycle().manage(PermissionInvalidator.configure(this.configuration));
     }
 
     /**
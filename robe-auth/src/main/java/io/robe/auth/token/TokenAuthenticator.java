@@ -8,10 +8,6 @@ import io.robe.auth.data.store.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-
 /**
  * Authenticator implementation for token based authentication.
  */
@@ -24,6 +20,7 @@ public class TokenAuthenticator implements Authenticator<String, Token> {
     private final RoleStore roleStore;
     private final PermissionStore permissionStore;
     private final RoleGroupStore roleGroupStore;
+    private final RolePermissionIndex permissionIndex;
 
     /**
      * Creates an instance of TokenBasedAuthenticator with the store classes.
@@ -37,6 +34,7 @@ public class TokenAuthenticator implements Authenticator<String, Token> {
         this.roleStore = roleStore;
         this.permissionStore = permissionStore;
         this.roleGroupStore = roleGroupStore;
+        this.permissionIndex = new RolePermissionIndex(permissionStore, roleGroupStore, serviceStore);
     }
 
     /**
@@ -48,43 +46,46 @@ public class TokenAuthenticator implements Authenticator<String, Token> {
      */
     @Override
     public Optional<Token> authenticate(String tokenString) throws AuthenticationException {
-        tokenString = tokenString.replaceAll("\"", "");
+        if (tokenString.indexOf('"') >= 0) {
+            tokenString = tokenString.replace("\"", "");
+        }
         LOGGER.debug("Authenticating from database:  " + tokenString);
         try {
             // Decode tokenString and get user
-            Token token = TokenManager.getInstance().createToken(tokenString);
+            return authenticate(TokenManager.getInstance().createToken(tokenString));
+        } catch (Exception e) {
+            LOGGER.error(tokenString, e);
+        }
+        return Optional.absent();
+    }
 
+    /**
+     * Creates {@link Optional} {@link io.robe.auth.Credentials} instance from an already decoded token.
+     * Use this method to avoid decoding the same token string again.
+     *
+     * @param token decoded token.
+     * @return Optional instance of a {@link io.robe.auth.Credentials} which created from token
+     * @throws AuthenticationException
+     */
+    public Optional<Token> authenticate(Token token) throws AuthenticationException {
+        try {
             Optional<UserEntry> user = (Optional<UserEntry>) userStore.findByUsername(token.getUsername());
             if (!user.isPresent()) {
-                LOGGER.warn("User is not available: " + tokenString);
+                LOGGER.warn("User is not available: " + token.getUsername());
                 return Optional.absent();
             }
             // If user exists and active than check Service Permissions for authorization controls
             if (user.get().isActive()) {
 
                 if (token.getPermissions() == null) {
-                    LOGGER.debug("Loading Permissions from DB: " + tokenString);
-                    Set<String> permissions = new HashSet<String>();
-                    Set<PermissionEntry> rolePermissions = new HashSet<PermissionEntry>();
-
-                    //If user role is a group than add sub role permissions to group
+                    LOGGER.debug("Loading Permissions from DB: " + token.getUsername());
 
                     Optional<RoleEntry> role = (Optional<RoleEntry>) roleStore.findByRoleId(user.get().getRoleId());
 
-                    getAllRolePermissions(role.get(), rolePermissions);
-
-                    for (PermissionEntry permission : rolePermissions) {
-                        if (permission.getType().equals(PermissionEntry.Type.SERVICE)) {
-                            Optional<? extends ServiceEntry> service = serviceStore.findByCode(permission.getRestrictedItemId());
-                            if (service.isPresent()) {
-                                permissions.add(service.get().getPath() + ":" + service.get().getMethod());
-                            }
-                        }
-                    }
-                    // Create credentials with user info and permission list
-                    token.setPermissions(Collections.unmodifiableSet(permissions));
+                    //Role permissions include sub role permissions if the role is a group.
+                    permissionIndex.setPermissions(role.get().getId(), token);
                 } else {
-                    LOGGER.debug("Loading Permissions from Cache: " + tokenString);
+                    LOGGER.debug("Loading Permissions from Cache: " + token.getUsername());
                 }
 
                 //Set Token to the thread local for future access.
@@ -93,29 +94,11 @@ public class TokenAuthenticator implements Authenticator<String, Token> {
                 return Optional.fromNullable(token);
             }
         } catch (Exception e) {
-            LOGGER.error(tokenString, e);
+            LOGGER.error(token.getUsername(), e);
         }
         return Optional.absent();
 
     }
 
 
-    /**
-     * Fill  permission list  with role and sub-role permissions recursively.
-     *
-     * @param parent          Role to traverse.
-     * @param rolePermissions list of all permissions of the given role.
-     */
-    private void getAllRolePermissions(RoleEntry parent, Set<PermissionEntry> rolePermissions) {
-        rolePermissions.addAll(permissionStore.findByRoleId(parent.getId()));
-        Set<RoleGroupEntry> roleGroupEntries = (Set<RoleGroupEntry>) roleGroupStore.findByGroupId(parent.getId());
-        for (RoleGroupEntry entry : roleGroupEntries) {
-            Optional<RoleEntry> role = (Optional<RoleEntry>) roleStore.findByRoleId(entry.getRoleId());
-            getAllRolePermissions(role.get(), rolePermissions);
-        }
-    }
-
-
 }
-
-
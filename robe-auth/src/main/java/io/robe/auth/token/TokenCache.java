@@ -0,0 +1,135 @@
+package io.robe.auth.token;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide cache for decoded tokens. Maps the raw token string to the decoded token fields, so repeated
+ * requests with the same cookie skip decryption. Bounded by size and time, entries also expire with the token itself.
+ * Disabled if the configured cache size is less than 1.
+ */
+public class TokenCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TokenCache.class);
+
+    private static Cache<String, Entry> cache;
+    private static Meter hits;
+    private static Meter misses;
+
+    private TokenCache() {
+
+    }
+
+    /**
+     * Configures the cache and registers hit/miss metrics.
+     *
+     * @param configuration configuration for auth bundle
+     * @param metrics       registry for cache metrics
+     */
+    public static void configure(TokenBasedAuthConfiguration configuration, MetricRegistry metrics) {
+        if (configuration.getTokenCacheSize() < 1) {
+            LOGGER.info("Token cache disabled.");
+            cache = null;
+            return;
+        }
+        hits = metrics.meter(MetricRegistry.name(TokenCache.class, "hits"));
+        misses = metrics.meter(MetricRegistry.name(TokenCache.class, "misses"));
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(configuration.getTokenCacheSize())
+                .expireAfterWrite(configuration.getTokenCacheExpiration(), TimeUnit.SECONDS)
+                .build();
+        String sizeName = MetricRegistry.name(TokenCache.class, "size");
+        if (!metrics.getGauges().containsKey(sizeName)) {
+            metrics.register(sizeName, new Gauge<Long>() {
+                @Override
+                public Long getValue() {
+                    return cache == null ? 0 : cache.size();
+                }
+            });
+        }
+        LOGGER.info("Token cache enabled. Size: " + configuration.getTokenCacheSize());
+    }
+
+    /**
+     * Returns the cached entry of the given token string.
+     *
+     * @param tokenString raw token string
+     * @return cached entry or null if there is no entry or the token of the entry is expired.
+     */
+    public static Entry get(String tokenString) {
+        if (cache == null) {
+            return null;
+        }
+        Entry entry = cache.getIfPresent(tokenString);
+        if (entry != null && entry.getExpireAt() <= System.currentTimeMillis()) {
+            cache.invalidate(tokenString);
+            entry = null;
+        }
+        if (entry == null) {
+            misses.mark();
+        } else {
+            hits.mark();
+        }
+        return entry;
+    }
+
+    /**
+     * Caches the decoded fields of the given token string. Already expired tokens are not cached.
+     *
+     * @param tokenString raw token string
+     * @param entry       decoded token fields
+     */
+    public static void put(String tokenString, Entry entry) {
+        if (cache != null && entry.getExpireAt() > System.currentTimeMillis()) {
+            cache.put(tokenString, entry);
+        }
+    }
+
+    public static void clear() {
+        if (cache != null) {
+            cache.invalidateAll();
+            cache.cleanUp();
+        }
+    }
+
+    /**
+     * Immutable decoded fields of a token.
+     */
+    public static class Entry {
+        private final String userId;
+        private final String username;
+        private final long expireAt;
+        private final String attributesHash;
+
+        public Entry(String userId, String username, long expireAt, String attributesHash) {
+            this.userId = userId;
+            this.username = username;
+            this.expireAt = expireAt;
+            this.attributesHash = attributesHash;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public long getExpireAt() {
+            return expireAt;
+        }
+
+        public String getAttributesHash() {
+            return attributesHash;
+        }
+    }
+}
@@ -18,6 +18,24 @@ public class TokenBasedAuthConfiguration {
 
     private String serverPassword;
 
+    private String tokenClass = "io.robe.auth.token.BasicToken";
+
+    private String macAlgorithm = "HmacSHA256";
+
+    private double refreshRatio = 0;
+
+    private int tokenCacheSize = 0;
+
+    private int tokenCacheExpiration = 300;
+
+    private int permissionIndexSize = 1000;
+
+    private String invalidationBus = "io.robe.auth.token.invalidation.LocalInvalidationBus";
+
+    private String invalidationGroup = "239.255.27.1";
+
+    private int invalidationPort = 45588;
+
 
     public String getTokenKey() {
         return tokenKey;
@@ -50,4 +68,40 @@ public class TokenBasedAuthConfiguration {
     public String getServerPassword() {
         return serverPassword;
     }
+
+    public double getRefreshRatio() {
+        return refreshRatio;
+    }
+
+    public int getTokenCacheSize() {
+        return tokenCacheSize;
+    }
+
+    public int getTokenCacheExpiration() {
+        return tokenCacheExpiration;
+    }
+
+    public int getPermissionIndexSize() {
+        return permissionIndexSize;
+    }
+
+    public String getTokenClass() {
+        return tokenClass;
+    }
+
+    public String getMacAlgorithm() {
+        return macAlgorithm;
+    }
+
+    public String getInvalidationBus() {
+        return invalidationBus;
+    }
+
+    public String getInvalidationGroup() {
+        return invalidationGroup;
+    }
+
+    public int getInvalidationPort() {
+        return invalidationPort;
+    }
 }
@@ -0,0 +1,32 @@
+package io.robe.auth.token.invalidation;
+
+import io.dropwizard.lifecycle.Managed;
+import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+
+/**
+ * Broadcasts permission cache invalidations to the other nodes of the cluster.
+ * Implementations must have a public no-arg constructor, they are created from
+ * {@link TokenBasedAuthConfiguration#getInvalidationBus()} and managed by the application lifecycle.
+ * Messages published before {@link #start()} or after {@link #stop()} may be dropped.
+ */
+public interface InvalidationBus extends Managed {
+
+    /**
+     * Configures the bus before start.
+     *
+     * @param configuration configuration for auth bundle
+     * @param listener      listener to notify for the messages of the other nodes
+     */
+    void configure(TokenBasedAuthConfiguration configuration, Listener listener);
+
+    /**
+     * Sends the message to the other nodes. Must not notify the listener of the current node.
+     *
+     * @param message invalidation to broadcast
+     */
+    void publish(InvalidationMessage message);
+
+    interface Listener {
+        void onMessage(InvalidationMessage message);
+    }
+}
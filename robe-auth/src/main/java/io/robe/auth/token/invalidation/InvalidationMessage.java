@@ -0,0 +1,70 @@
+package io.robe.auth.token.invalidation;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An invalidation of cached permissions. Holds the type of the changed items and their ids.
+ */
+public class InvalidationMessage {
+
+    public enum Type {
+        ALL,
+        ROLES,
+        SERVICES,
+        USERS
+    }
+
+    private static final char SEPARATOR = '\n';
+
+    private final Type type;
+    private final List<String> ids;
+
+    public InvalidationMessage(Type type, Collection<String> ids) {
+        this.type = type;
+        this.ids = Collections.unmodifiableList(new ArrayList<>(ids));
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<String> getIds() {
+        return ids;
+    }
+
+    /**
+     * Encodes the message as UTF-8 lines, type first and ids after.
+     *
+     * @return encoded message
+     */
+    public byte[] toBytes() {
+        StringBuilder builder = new StringBuilder(type.name());
+        for (String id : ids) {
+            builder.append(SEPARATOR).append(id);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Decodes a message encoded with {@link #toBytes()}.
+     *
+     * @param data   encoded message
+     * @param offset start of the message
+     * @param length length of the message
+     * @return decoded message
+     */
+    public static InvalidationMessage fromBytes(byte[] data, int offset, int length) {
+        String[] lines = new String(data, offset, length, StandardCharsets.UTF_8).split(String.valueOf(SEPARATOR));
+        return new InvalidationMessage(Type.valueOf(lines[0]), Arrays.asList(lines).subList(1, lines.length));
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + ids;
+    }
+}
@@ -0,0 +1,40 @@
+package io.robe.auth.token.invalidation;
+
+import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * In memory bus which delivers messages to the other started buses of the same JVM.
+ * Default bus of a single node, also useful for simulating several nodes in tests.
+ */
+public class LocalInvalidationBus implements InvalidationBus {
+
+    private static final CopyOnWriteArrayList<LocalInvalidationBus> buses = new CopyOnWriteArrayList<>();
+
+    private Listener listener;
+
+    @Override
+    public void configure(TokenBasedAuthConfiguration configuration, Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    public void start() throws Exception {
+        buses.addIfAbsent(this);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        buses.remove(this);
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        for (LocalInvalidationBus bus : buses) {
+            if (bus != this && bus.listener != null) {
+                bus.listener.onMessage(message);
+            }
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package io.robe.auth.token.invalidation;
+
+import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Broadcasts invalidations with UDP multicast, needs no external broker. All nodes of the cluster must use the same
+ * group, port and server password. Every datagram starts with the id of the sender node, so the node skips its own
+ * messages, and the send time. Datagrams are signed with a MAC of the server password, unsigned, older than
+ * {@link #MAX_AGE} or oversized datagrams are dropped and counted.
+ * Delivery is not guaranteed, token max age is still the upper bound of staleness for a lost message.
+ */
+public class MulticastInvalidationBus implements InvalidationBus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MulticastInvalidationBus.class);
+    private static final int MAX_LENGTH = 60000;
+
+    /**
+     * Max difference between the send time of a message and the clock of the receiver in milliseconds.
+     */
+    public static final long MAX_AGE = 60000;
+
+    private final byte[] nodeId = UUID.randomUUID().toString().getBytes(StandardCharsets.US_ASCII);
+    private final AtomicLong dropped = new AtomicLong();
+
+    private InetAddress group;
+    private int port;
+    private Listener listener;
+    private SecretKeySpec key;
+    private Mac sendMac;
+    private volatile MulticastSocket socket;
+
+    @Override
+    public void configure(TokenBasedAuthConfiguration configuration, Listener listener) {
+        try {
+            this.group = InetAddress.getByName(configuration.getInvalidationGroup());
+        } catch (IOException e) {
+            throw new RuntimeException("Invalid multicast group: " + configuration.getInvalidationGroup(), e);
+        }
+        if (configuration.getServerPassword() == null || configuration.getServerPassword().equals("auto")) {
+            throw new IllegalArgumentException("Multicast invalidation bus needs a server password shared by all nodes");
+        }
+        this.port = configuration.getInvalidationPort();
+        this.listener = listener;
+        this.key = new SecretKeySpec(configuration.getServerPassword().getBytes(StandardCharsets.UTF_8),
+                configuration.getMacAlgorithm());
+        this.sendMac = createMac();
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(key.getAlgorithm());
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalArgumentException("Can not initialize MAC: " + key.getAlgorithm(), e);
+        }
+    }
+
+    /**
+     * @return number of the received datagrams which are dropped because of a bad signature, age, size or content
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() throws Exception {
+        final MulticastSocket socket = new MulticastSocket(port);
+        socket.joinGroup(group);
+        this.socket = socket;
+        Thread receiver = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                receive(socket);
+            }
+        }, "invalidation-bus-" + port);
+        receiver.setDaemon(true);
+        receiver.start();
+        LOGGER.info("Listening permission invalidations on " + group.getHostAddress() + ":" + port);
+    }
+
+    @Override
+    public void stop() throws Exception {
+        MulticastSocket current = socket;
+        socket = null;
+        if (current != null) {
+            current.leaveGroup(group);
+            current.close();
+        }
+    }
+
+    @Override
+    public void publish(InvalidationMessage message) {
+        MulticastSocket current = socket;
+        if (current == null) {
+            LOGGER.warn("Invalidation bus is not started, message dropped: " + message);
+            return;
+        }
+        byte[] body = message.toBytes();
+        if (body.length > MAX_LENGTH) {
+            // Too many ids for a single datagram, other nodes will clear everything.
+            LOGGER.warn("Invalidation is too large for a datagram, publishing ALL instead: " + message.getType());
+            body = new InvalidationMessage(InvalidationMessage.Type.ALL, Collections.<String>emptyList()).toBytes();
+        }
+        byte[] data;
+        synchronized (sendMac) {
+            ByteBuffer buffer = ByteBuffer.allocate(headerLength() + body.length + sendMac.getMacLength());
+            buffer.put(nodeId).putLong(System.currentTimeMillis()).put(body);
+            sendMac.update(buffer.array(), 0, buffer.position());
+            buffer.put(sendMac.doFinal());
+            data = buffer.array();
+        }
+        try {
+            current.send(new DatagramPacket(data, data.length, group, port));
+        } catch (IOException e) {
+            LOGGER.error("Can not publish invalidation: " + message, e);
+        }
+    }
+
+    private int headerLength() {
+        return nodeId.length + 8;
+    }
+
+    private void receive(MulticastSocket socket) {
+        Mac receiveMac = createMac();
+        int macLength = receiveMac.getMacLength();
+        int maxLength = headerLength() + MAX_LENGTH + macLength;
+        // One more byte than the max datagram to detect the truncated ones.
+        byte[] buffer = new byte[maxLength + 1];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                int length = packet.getLength();
+                if (length < headerLength() + macLength) {
+                    drop(packet, "too short");
+                    continue;
+                }
+                if (length > maxLength) {
+                    drop(packet, "oversized");
+                    continue;
+                }
+                if (isOwn(packet)) {
+                    continue;
+                }
+                int offset = packet.getOffset();
+                int signed = length - macLength;
+                receiveMac.update(packet.getData(), offset, signed);
+                byte[] signature = receiveMac.doFinal();
+                if (!MessageDigest.isEqual(signature,
+                        Arrays.copyOfRange(packet.getData(), offset + signed, offset + length))) {
+                    drop(packet, "invalid signature");
+                    continue;
+                }
+                long sentAt = ByteBuffer.wrap(packet.getData(), offset + nodeId.length, 8).getLong();
+                if (Math.abs(System.currentTimeMillis() - sentAt) > MAX_AGE) {
+                    drop(packet, "expired");
+                    continue;
+                }
+                InvalidationMessage message = InvalidationMessage.fromBytes(packet.getData(),
+                        offset + headerLength(), signed - headerLength());
+                listener.onMessage(message);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    LOGGER.error("Can not receive invalidation", e);
+                }
+            } catch (RuntimeException e) {
+                dropped.incrementAndGet();
+                LOGGER.error("Invalid invalidation message", e);
+            }
+        }
+    }
+
+    private void drop(DatagramPacket packet, String reason) {
+        long count = dropped.incrementAndGet();
+        LOGGER.warn("Invalidation datagram from " + packet.getAddress() + " dropped, " + reason
+                + ". Total dropped: " + count);
+    }
+
+    private boolean isOwn(DatagramPacket packet) {
+        byte[] data = packet.getData();
+        for (int i = 0; i < nodeId.length; i++) {
+            if (data[packet.getOffset() + i] != nodeId[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,107 @@
+package io.robe.auth.token.invalidation;
+
+import io.robe.auth.token.BasicToken;
+import io.robe.auth.token.RolePermissionIndex;
+import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * Entry point for invalidating cached permissions. Every invalidation is applied to the current node and
+ * published to the other nodes with the configured {@link InvalidationBus}.
+ */
+public class PermissionInvalidator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PermissionInvalidator.class);
+
+    private static final InvalidationBus.Listener LISTENER = new InvalidationBus.Listener() {
+        @Override
+        public void onMessage(InvalidationMessage message) {
+            LOGGER.debug("Received invalidation: " + message);
+            apply(message);
+        }
+    };
+
+    private static InvalidationBus bus;
+
+    private PermissionInvalidator() {
+
+    }
+
+    /**
+     * Creates the bus of the given configuration.
+     *
+     * @param configuration configuration for auth bundle
+     * @return configured bus, must be started by the caller.
+     */
+    public static InvalidationBus configure(TokenBasedAuthConfiguration configuration) throws Exception {
+        InvalidationBus instance = Class.forName(configuration.getInvalidationBus())
+                .asSubclass(InvalidationBus.class).newInstance();
+        instance.configure(configuration, LISTENER);
+        bus = instance;
+        return instance;
+    }
+
+    /**
+     * Invalidates the permissions of the given roles on all nodes.
+     *
+     * @param roleIds ids of the changed roles
+     */
+    public static void invalidateRoles(Collection<String> roleIds) {
+        publish(new InvalidationMessage(InvalidationMessage.Type.ROLES, roleIds));
+    }
+
+    /**
+     * Invalidates the permissions of the roles which have the given services on all nodes.
+     *
+     * @param serviceIds ids of the changed services
+     */
+    public static void invalidateServices(Collection<String> serviceIds) {
+        publish(new InvalidationMessage(InvalidationMessage.Type.SERVICES, serviceIds));
+    }
+
+    /**
+     * Clears the cached permissions of the given user on all nodes.
+     *
+     * @param username username of the user
+     */
+    public static void invalidateUser(String username) {
+        publish(new InvalidationMessage(InvalidationMessage.Type.USERS, Collections.singleton(username)));
+    }
+
+    /**
+     * Clears all cached permissions on all nodes.
+     */
+    public static void invalidateAll() {
+        publish(new InvalidationMessage(InvalidationMessage.Type.ALL, Collections.<String>emptyList()));
+    }
+
+    private static void publish(InvalidationMessage message) {
+        apply(message);
+        if (bus != null) {
+            bus.publish(message);
+        }
+    }
+
+    private static void apply(InvalidationMessage message) {
+        switch (message.getType()) {
+            case ROLES:
+                RolePermissionIndex.invalidateRoles(message.getIds());
+                break;
+            case SERVICES:
+                RolePermissionIndex.invalidateServices(message.getIds());
+                break;
+            case USERS:
+                for (String username : message.getIds()) {
+                    BasicToken.clearPermissionCache(username);
+                }
+                break;
+            default:
+                RolePermissionIndex.invalidateAll();
+                BasicToken.clearAllPermissionCache();
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package io.robe.auth.token.jersey;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.model.ResourceModel;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.monitoring.ApplicationEventListener;
+import org.glassfish.jersey.server.monitoring.RequestEvent;
+import org.glassfish.jersey.server.monitoring.RequestEventListener;
+import org.glassfish.jersey.uri.PathTemplate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiled permission keys of resource methods. Permission key (path:METHOD) of every resource method is calculated
+ * once from the resource model at startup and the method gets an id. Permission sets are converted to bit sets over
+ * these ids once, so an authorization check is a single bit test.
+ * Methods which can not be identified (sub resource locators, ambiguous methods) are not compiled.
+ */
+public class PermissionMatcher implements ApplicationEventListener {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PermissionMatcher.class);
+    private static final int UNKNOWN = -1;
+
+    private static volatile Map<Method, Integer> ids = new HashMap<>();
+    private static volatile String[] keys = new String[0];
+
+    // Weak keys are compared by identity, permission sets are shared by the users of the same role.
+    private static final Cache<Set<String>, BitSet> bitSets = CacheBuilder.newBuilder().weakKeys().build();
+
+    @Override
+    public void onEvent(ApplicationEvent event) {
+        if (event.getType() == ApplicationEvent.Type.INITIALIZATION_APP_FINISHED) {
+            compile(event.getResourceModel());
+        }
+    }
+
+    @Override
+    public RequestEventListener onRequest(RequestEvent requestEvent) {
+        return null;
+    }
+
+    /**
+     * Calculates permission keys of all resource methods of the given model and assigns ids.
+     *
+     * @param model resource model of the application
+     */
+    static void compile(ResourceModel model) {
+        Map<Method, Integer> methodIds = new HashMap<>();
+        List<String> methodKeys = new ArrayList<>();
+        for (Resource resource : model.getResources()) {
+            compile(resource, "", methodIds, methodKeys);
+        }
+        keys = methodKeys.toArray(new String[methodKeys.size()]);
+        ids = methodIds;
+        bitSets.invalidateAll();
+        LOGGER.info("Compiled permission keys of " + keys.length + " resource methods.");
+    }
+
+    private static void compile(Resource resource, String parentPath, Map<Method, Integer> methodIds, List<String> methodKeys) {
+        String path = resource.getPath() == null ? parentPath : parentPath + new PathTemplate(resource.getPath()).getTemplate();
+        for (ResourceMethod method : resource.getResourceMethods()) {
+            Method handlingMethod = method.getInvocable().getHandlingMethod();
+            Integer id = methodIds.get(handlingMethod);
+            String key = (path + ":" + method.getHttpMethod()).intern();
+            if (id == null) {
+                methodIds.put(handlingMethod, methodKeys.size());
+                methodKeys.add(key);
+            } else if (id != UNKNOWN && !methodKeys.get(id).equals(key)) {
+                // Same method is bound to different paths, it can not be identified by the method itself.
+                methodIds.put(handlingMethod, UNKNOWN);
+            }
+        }
+        for (Resource child : resource.getChildResources()) {
+            compile(child, path, methodIds, methodKeys);
+        }
+    }
+
+    /**
+     * Returns the id of the given resource method.
+     *
+     * @param method matched resource method
+     * @return id of the method or -1 if the method is not compiled.
+     */
+    public static int getId(ResourceMethod method) {
+        if (method == null) {
+            return UNKNOWN;
+        }
+        Integer id = ids.get(method.getInvocable().getHandlingMethod());
+        return id == null ? UNKNOWN : id;
+    }
+
+    /**
+     * Checks whether the given permission set contains the permission key of the method with the given id.
+     *
+     * @param permissions permission set of the user
+     * @param id          id of the resource method
+     * @return true if permitted
+     */
+    public static boolean isPermitted(Set<String> permissions, int id) {
+        BitSet bits = bitSets.getIfPresent(permissions);
+        if (bits == null) {
+            bits = toBitSet(permissions);
+            bitSets.put(permissions, bits);
+        }
+        return bits.get(id);
+    }
+
+    private static BitSet toBitSet(Set<String> permissions) {
+        String[] current = keys;
+        BitSet bits = new BitSet(current.length);
+        for (int i = 0; i < current.length; i++) {
+            if (permissions.contains(current[i])) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+}
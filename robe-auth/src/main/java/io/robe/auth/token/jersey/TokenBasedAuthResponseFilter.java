@@ -1,7 +1,6 @@
 package io.robe.auth.token.jersey;
 
 import io.robe.auth.token.Token;
-import io.robe.auth.token.TokenManager;
 import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
 import org.joda.time.DateTime;
 import org.slf4j.Logger;
@@ -21,6 +20,7 @@ public class TokenBasedAuthResponseFilter implements ContainerResponseFilter {
     private static final Logger LOGGER = LoggerFactory.getLogger(TokenBasedAuthResponseFilter.class);
     private static String tokenKey;
     private static String cookieSentence = "";
+    private final double refreshRatio;
 
 
     /**
@@ -30,6 +30,7 @@ public class TokenBasedAuthResponseFilter implements ContainerResponseFilter {
      */
     public TokenBasedAuthResponseFilter(TokenBasedAuthConfiguration configuration) {
         this.tokenKey = configuration.getTokenKey();
+        this.refreshRatio = configuration.getRefreshRatio();
         String domain = configuration.getDomain();
         String path = configuration.getPath();
         if (path != null && !path.equals(""))
@@ -64,10 +65,10 @@ public class TokenBasedAuthResponseFilter implements ContainerResponseFilter {
      */
     @Override
     public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) throws IOException {
-        String authToken = extractAuthTokenFromCookieList(requestContext.getHeaders().getFirst("Cookie"));
+        String authToken = TokenExtractor.getTokenString(requestContext, tokenKey);
         if (authToken != null && authToken.length() != 0) {
             try {
-                Token token = TokenManager.getInstance().createToken(authToken);
+                Token token = TokenContext.getToken(requestContext, authToken);
                 if (token.isExpired()) {
                     LOGGER.debug("ExpireDate : " + token.getExpirationDate().toString());
                     LOGGER.debug("Now: " + DateTime.now().toDate().toString());
@@ -75,7 +76,7 @@ public class TokenBasedAuthResponseFilter implements ContainerResponseFilter {
                     responseContext.setStatusInfo(Response.Status.UNAUTHORIZED);
                     responseContext.setEntity("Token expired. Please login again.");
                     LOGGER.info("Token expired. Please login again.");
-                } else {
+                } else if (isRefreshRequired(token)) {
                     token.setExpiration(token.getMaxAge());
                     if (!"authentication/logout".equals(requestContext.getUriInfo().getPath()))
                         responseContext.getHeaders().putSingle("Set-Cookie", getTokenSentence(token.getTokenString()));
@@ -90,22 +91,18 @@ public class TokenBasedAuthResponseFilter implements ContainerResponseFilter {
     }
 
     /**
-     * Extracts the accesstoken from cookies
+     * Checks whether the token must be re-issued. If refresh ratio is configured, token will be re-issued only if the
+     * remaining lifetime is less than the given ratio of max age. Otherwise token will be re-issued on every response.
      *
-     * @param cookieList
-     * @return
+     * @param token token to check
+     * @return true if token must be re-issued
      */
-    private String extractAuthTokenFromCookieList(String cookieList) {
-        if (cookieList == null || cookieList.length() == 0) {
-            return null;
-        }
-        String[] cookies = cookieList.split(";");
-        for (String cookie : cookies) {
-            if (cookie.trim().startsWith(tokenKey)) {
-                return cookie.trim().substring(tokenKey.length() + 1);
-            }
+    private boolean isRefreshRequired(Token token) {
+        if (refreshRatio <= 0) {
+            return true;
         }
-        return null;
+        long remaining = token.getExpirationDate().getTime() - System.currentTimeMillis();
+        return remaining < token.getMaxAge() * 1000L * refreshRatio;
     }
 
 }
@@ -0,0 +1,49 @@
+package io.robe.auth.token.jersey;
+
+import io.robe.auth.token.Token;
+import io.robe.auth.token.TokenManager;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import java.lang.reflect.InvocationTargetException;
+
+/**
+ * Request scoped holder for the parsed token.
+ * Token string is decoded only once per request and the same instance is shared by
+ * {@link TokenFactory}, {@link io.robe.auth.token.TokenAuthenticator} and {@link TokenBasedAuthResponseFilter}.
+ */
+public final class TokenContext {
+
+    private static final String PROPERTY = TokenContext.class.getName();
+
+    private final String tokenString;
+    private final Token token;
+
+    private TokenContext(String tokenString, Token token) {
+        this.tokenString = tokenString;
+        this.token = token;
+    }
+
+    /**
+     * Returns the parsed token of the given token string. Parses the token only if it is not parsed before in the
+     * current request.
+     *
+     * @param request     current request context
+     * @param tokenString token string to parse
+     * @return parsed token
+     */
+    public static Token getToken(ContainerRequestContext request, String tokenString) throws IllegalAccessException, InvocationTargetException, InstantiationException {
+        if (tokenString.indexOf('"') >= 0) {
+            tokenString = tokenString.replace("\"", "");
+        }
+        Object property = request.getProperty(PROPERTY);
+        if (property instanceof TokenContext) {
+            TokenContext context = (TokenContext) property;
+            if (context.tokenString.equals(tokenString)) {
+                return context.token;
+            }
+        }
+        Token token = TokenManager.getInstance().createToken(tokenString);
+        request.setProperty(PROPERTY, new TokenContext(tokenString, token));
+        return token;
+    }
+}
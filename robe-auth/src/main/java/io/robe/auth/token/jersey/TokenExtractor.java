@@ -0,0 +1,96 @@
+package io.robe.auth.token.jersey;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import java.util.List;
+
+/**
+ * Extracts the token string from the Cookie header. Header is scanned once in place without splitting or trimming,
+ * only the returned value is allocated. Quoted values are unquoted.
+ * Result is cached on the request, so {@link TokenFactory} and {@link TokenBasedAuthResponseFilter} share it.
+ */
+public final class TokenExtractor {
+
+    private static final String PROPERTY = TokenExtractor.class.getName();
+    private static final Object NONE = new Object();
+
+    private TokenExtractor() {
+
+    }
+
+    /**
+     * Returns the token string of the request. Cookie headers are scanned only on the first call.
+     *
+     * @param request  current request context
+     * @param tokenKey name of the token cookie
+     * @return unquoted token string or null if the request has no token cookie.
+     */
+    public static String getTokenString(ContainerRequestContext request, String tokenKey) {
+        Object property = request.getProperty(PROPERTY);
+        if (property == null) {
+            String tokenString = null;
+            List<String> headers = request.getHeaders().get("Cookie");
+            if (headers != null) {
+                for (int i = 0; tokenString == null && i < headers.size(); i++) {
+                    tokenString = extract(headers.get(i), tokenKey);
+                }
+            }
+            property = tokenString == null ? NONE : tokenString;
+            request.setProperty(PROPERTY, property);
+        }
+        return property == NONE ? null : (String) property;
+    }
+
+    /**
+     * Finds the value of the cookie with the given name in a Cookie header.
+     *
+     * @param header   value of a Cookie header (name1=value1; name2="value2")
+     * @param tokenKey name of the token cookie
+     * @return unquoted value or null if the header has no cookie with the given name.
+     */
+    public static String extract(String header, String tokenKey) {
+        if (header == null) {
+            return null;
+        }
+        int length = header.length();
+        int keyLength = tokenKey.length();
+        int start = 0;
+        while (start < length) {
+            start = skipWhitespace(header, start, length);
+            int end = header.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            if (header.regionMatches(start, tokenKey, 0, keyLength)) {
+                int equals = skipWhitespace(header, start + keyLength, end);
+                if (equals < end && header.charAt(equals) == '=') {
+                    return value(header, equals + 1, end);
+                }
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private static String value(String header, int start, int end) {
+        start = skipWhitespace(header, start, end);
+        while (end > start && isWhitespace(header.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start >= 2 && header.charAt(start) == '"' && header.charAt(end - 1) == '"') {
+            start++;
+            end--;
+        }
+        return header.substring(start, end);
+    }
+
+    private static int skipWhitespace(String header, int index, int end) {
+        while (index < end && isWhitespace(header.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t';
+    }
+}
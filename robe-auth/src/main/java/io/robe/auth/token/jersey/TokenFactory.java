@@ -6,14 +6,14 @@ import io.dropwizard.auth.AuthenticationException;
 import io.dropwizard.auth.Authenticator;
 import io.robe.auth.Credentials;
 import io.robe.auth.token.Token;
-import io.robe.auth.token.TokenManager;
+import io.robe.auth.token.TokenAuthenticator;
+import org.glassfish.jersey.server.ExtendedUriInfo;
 import org.glassfish.jersey.server.internal.inject.AbstractContainerRequestValueFactory;
 import org.glassfish.jersey.uri.UriTemplate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.WebApplicationException;
-import javax.ws.rs.core.Cookie;
 import javax.ws.rs.core.Response;
 import java.lang.reflect.InvocationTargetException;
 import java.nio.charset.StandardCharsets;
@@ -65,25 +65,24 @@ public class TokenFactory<T extends Token> extends AbstractContainerRequestValue
 
     @Override
     public Credentials provide() {
-        Cookie tokenCookie = getContainerRequest().getCookies().get(tokenKey);
+        String tokenString = TokenExtractor.getTokenString(getContainerRequest(), tokenKey);
 
         if (isRequired()) {
 
 
-            if (tokenCookie == null) {
-                throw new WebApplicationException(Response.Status.UNAUTHORIZED);
-            } else if (nullOrEmpty(tokenCookie.getValue())) {
+            if (nullOrEmpty(tokenString)) {
                 throw new WebApplicationException(Response.Status.UNAUTHORIZED);
             } else {
                 try {
-                    if (!isRealOwnerOfToken(tokenCookie)) {
+                    Token token = TokenContext.getToken(getContainerRequest(), tokenString);
+                    if (!isRealOwnerOfToken(tokenString, token)) {
                         throw new WebApplicationException(Response.Status.UNAUTHORIZED);
                     }
-                    Optional<Token> result = authenticator.authenticate(tokenCookie.getValue());
+                    Optional<Token> result = authenticate(token, tokenString);
 
                     if (!result.isPresent()) {
                         throw new WebApplicationException(Response.Status.UNAUTHORIZED);
-                    } else if (!isAuthorized(result.get(), getContainerRequest().getUriInfo().getMatchedTemplates(), getContainerRequest().getMethod())) {
+                    } else if (!isAuthorized(result.get(), getContainerRequest().getUriInfo(), getContainerRequest().getMethod())) {
                         throw new WebApplicationException(Response.Status.FORBIDDEN);
                     } else {
                         return result.get();
@@ -97,11 +96,12 @@ public class TokenFactory<T extends Token> extends AbstractContainerRequestValue
                 }
             }
         } else {
-            if (tokenCookie == null) {
+            if (tokenString == null) {
                 return createEmptyCredentials();
             } else {
                 try {
-                    Optional<Token> result = authenticator.authenticate(tokenCookie.getValue());
+                    Token token = TokenContext.getToken(getContainerRequest(), tokenString);
+                    Optional<Token> result = authenticate(token, tokenString);
                     if (result.isPresent()) {
                         return result.get();
                     } else {
@@ -110,25 +110,60 @@ public class TokenFactory<T extends Token> extends AbstractContainerRequestValue
                 } catch (AuthenticationException e) {
                     // TODO ignore this error
                     return createEmptyCredentials();
+                } catch (InstantiationException | InvocationTargetException | IllegalAccessException e) {
+                    return createEmptyCredentials();
                 }
 
             }
         }
     }
 
-    private boolean isRealOwnerOfToken(Cookie tokenCookie) throws IllegalAccessException, InvocationTargetException, InstantiationException {
-        LOGGER.debug("HttpContext : " + this.getContainerRequest().getPath(true) + " Cookie : " + tokenCookie);
-        Token token = TokenManager.getInstance().createToken(tokenCookie.getValue());
+    private boolean isRealOwnerOfToken(String tokenString, Token token) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("HttpContext : " + this.getContainerRequest().getPath(true) + " Token : " + tokenString);
+        }
         String hash = generateAttributesHash();
         return hash.equals(token.getAttributesHash());
 
     }
 
+    /**
+     * Authenticates the already decoded token if the authenticator supports it, otherwise falls back to token string.
+     *
+     * @param token       decoded token
+     * @param tokenString raw token string
+     * @return authenticated token
+     * @throws AuthenticationException
+     */
+    private Optional<Token> authenticate(Token token, String tokenString) throws AuthenticationException {
+        if (authenticator instanceof TokenAuthenticator) {
+            return ((TokenAuthenticator) authenticator).authenticate(token);
+        }
+        return authenticator.authenticate(tokenString);
+    }
+
     private boolean nullOrEmpty(String token) {
         return token == null || token.length() == 0;
     }
 
 
+    /**
+     * Checks the permission of the matched resource method with its compiled id. Falls back to merging the matched
+     * templates if the method is not compiled by {@link PermissionMatcher}.
+     *
+     * @param token   for checking permission list
+     * @param uriInfo uri info of the request
+     * @param method  HTTP Method of the request
+     * @return true if user is Authorized.
+     */
+    private static boolean isAuthorized(Token token, ExtendedUriInfo uriInfo, String method) {
+        int id = PermissionMatcher.getId(uriInfo.getMatchedResourceMethod());
+        if (id >= 0 && uriInfo.getMatchedResourceLocators().isEmpty()) {
+            return PermissionMatcher.isPermitted(token.getPermissions(), id);
+        }
+        return isAuthorized(token, uriInfo.getMatchedTemplates(), method);
+    }
+
     /**
      * Merges all path patterns and and creates a single string value which will be equal with service methods path
      * annotation value and HTTP method type. Generated string will be used for permission checks.
@@ -138,7 +173,7 @@ public class TokenFactory<T extends Token> extends AbstractContainerRequestValue
      * @param method           HTTP Method of the request. Will be merged with
      * @return true if user is Authorized.
      */
-    private boolean isAuthorized(Token token, List<UriTemplate> matchedTemplates, String method) {
+    private static boolean isAuthorized(Token token, List<UriTemplate> matchedTemplates, String method) {
         StringBuilder path = new StringBuilder();
         // Merge all path templates and generate a path.
         for (UriTemplate template : matchedTemplates) {
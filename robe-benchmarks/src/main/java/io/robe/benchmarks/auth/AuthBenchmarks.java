@@ -0,0 +1,54 @@
+package io.robe.benchmarks.auth;
+
+import com.codahale.metrics.MetricRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.robe.auth.token.Token;
+import io.robe.auth.token.TokenCache;
+import io.robe.auth.token.TokenManager;
+import io.robe.auth.token.configuration.TokenBasedAuthConfiguration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Common setup of the auth benchmarks. Token classes keep their configuration in static fields, so every parameter
+ * combination must run in its own fork.
+ */
+public final class AuthBenchmarks {
+
+    public static final String TOKEN_KEY = "auth-token";
+
+    private AuthBenchmarks() {
+
+    }
+
+    /**
+     * Creates an auth configuration same as the one read from the yml file.
+     *
+     * @param tokenClass     class name of the token
+     * @param poolSize       pool size of the encryptor
+     * @param tokenCacheSize size of the decoded token cache, 0 to disable
+     * @return configuration
+     */
+    public static TokenBasedAuthConfiguration configuration(String tokenClass, int poolSize, int tokenCacheSize) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("tokenKey", TOKEN_KEY);
+        values.put("maxage", 3600);
+        values.put("poolSize", poolSize);
+        values.put("algorithm", "PBEWithMD5AndTripleDES");
+        values.put("serverPassword", "auto");
+        values.put("tokenClass", tokenClass);
+        values.put("tokenCacheSize", tokenCacheSize);
+        return new ObjectMapper().convertValue(values, TokenBasedAuthConfiguration.class);
+    }
+
+    /**
+     * Configures token classes same as {@link io.robe.auth.token.TokenAuthBundle}.
+     *
+     * @param configuration configuration to apply
+     */
+    public static void configure(TokenBasedAuthConfiguration configuration) throws Exception {
+        TokenCache.configure(configuration, new MetricRegistry());
+        TokenManager.configure(Class.forName(configuration.getTokenClass()).asSubclass(Token.class), configuration);
+    }
+}
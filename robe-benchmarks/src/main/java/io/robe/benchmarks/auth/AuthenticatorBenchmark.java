@@ -0,0 +1,118 @@
+package io.robe.benchmarks.auth;
+
+import com.google.common.base.Optional;
+import io.robe.auth.token.BasicToken;
+import io.robe.auth.token.RolePermissionIndex;
+import io.robe.auth.token.Token;
+import io.robe.auth.token.TokenAuthenticator;
+import io.robe.auth.token.TokenManager;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TokenAuthenticator#authenticate} against in memory stores, so only the auth overhead is measured.
+ * Requests rotate over the users, every user has a role group with {@code subRoles} roles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class AuthenticatorBenchmark {
+
+    private static final int USERS = 1000;
+
+    @Param({"io.robe.auth.token.BasicToken", "io.robe.auth.token.SignedToken"})
+    public String tokenClass;
+
+    @Param({"0", "10000"})
+    public int tokenCacheSize;
+
+    @Param({"1", "10"})
+    public int subRoles;
+
+    private TokenAuthenticator authenticator;
+    private String[] usernames;
+    private Token[] tokens;
+    private String[] tokenStrings;
+
+    @Setup
+    public void setUp() throws Exception {
+        AuthBenchmarks.configure(AuthBenchmarks.configuration(tokenClass, 4, tokenCacheSize));
+        InMemoryStores stores = new InMemoryStores(USERS, subRoles, 20);
+        authenticator = new TokenAuthenticator(stores.getUserStore(), stores.getServiceStore(), stores.getRoleStore(),
+                stores.getPermissionStore(), stores.getRoleGroupStore());
+        usernames = new String[USERS];
+        tokens = new Token[USERS];
+        tokenStrings = new String[USERS];
+        for (int i = 0; i < USERS; i++) {
+            usernames[i] = InMemoryStores.username(i);
+            tokens[i] = TokenManager.getInstance().createToken(usernames[i], usernames[i],
+                    DateTime.now().plusHours(1), Collections.<String, String>emptyMap());
+            tokenStrings[i] = tokens[i].getTokenString();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int index;
+
+        int next() {
+            index = (index + 1) % USERS;
+            return index;
+        }
+    }
+
+    /**
+     * Decoded token, permissions are cached.
+     */
+    @Benchmark
+    public Optional<Token> authenticate(Cursor cursor) throws Exception {
+        return authenticator.authenticate(tokens[cursor.next()]);
+    }
+
+    /**
+     * Token string is decoded first, permissions are cached.
+     */
+    @Benchmark
+    public Optional<Token> authenticateTokenString(Cursor cursor) throws Exception {
+        return authenticator.authenticate(tokenStrings[cursor.next()]);
+    }
+
+    /**
+     * Permissions of the user are cleared, they are taken from the role index.
+     */
+    @Benchmark
+    public Optional<Token> authenticateUserCacheMiss(Cursor cursor) throws Exception {
+        int index = cursor.next();
+        BasicToken.clearPermissionCache(usernames[index]);
+        return authenticator.authenticate(tokens[index]);
+    }
+
+    /**
+     * Role index and permissions of the user are cleared, permissions are loaded from the stores.
+     */
+    @Benchmark
+    public Optional<Token> authenticateIndexMiss(Cursor cursor) throws Exception {
+        int index = cursor.next();
+        RolePermissionIndex.invalidateAll();
+        BasicToken.clearPermissionCache(usernames[index]);
+        return authenticator.authenticate(tokens[index]);
+    }
+}
@@ -0,0 +1,95 @@
+package io.robe.benchmarks.auth;
+
+import io.robe.auth.token.jersey.TokenExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Extracting the token cookie from realistic Cookie headers (analytics and session cookies around the token).
+ * Compares {@link TokenExtractor} with the split and trim scanning it replaced.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CookieHeaderBenchmark {
+
+    private static final String TOKEN_KEY = "auth-token";
+    private static final String[] NAMES = {"_ga", "_gid", "_fbp", "JSESSIONID", "lang", "theme", "consent", "_hjid"};
+    private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_.";
+
+    @Param({"2048", "4096"})
+    public int headerSize;
+
+    @Param({"first", "middle", "last"})
+    public String position;
+
+    @Param({"false", "true"})
+    public boolean quoted;
+
+    private String header;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(headerSize);
+        String token = randomValue(random, 300);
+        String tokenCookie = TOKEN_KEY + "=" + (quoted ? "\"" + token + "\"" : token);
+        StringBuilder others = new StringBuilder();
+        for (int i = 0; others.length() + tokenCookie.length() < headerSize; i++) {
+            if (others.length() > 0) {
+                others.append("; ");
+            }
+            others.append(NAMES[i % NAMES.length]).append(i).append('=').append(randomValue(random, 20 + random.nextInt(80)));
+        }
+        String rest = others.toString();
+        switch (position) {
+            case "first":
+                header = tokenCookie + "; " + rest;
+                break;
+            case "middle":
+                int middle = rest.indexOf("; ", rest.length() / 2);
+                header = rest.substring(0, middle) + "; " + tokenCookie + rest.substring(middle);
+                break;
+            default:
+                header = rest + "; " + tokenCookie;
+        }
+    }
+
+    private static String randomValue(Random random, int length) {
+        char[] value = new char[length];
+        for (int i = 0; i < length; i++) {
+            value[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(value);
+    }
+
+    @Benchmark
+    public String extractor() {
+        return TokenExtractor.extract(header, TOKEN_KEY);
+    }
+
+    @Benchmark
+    public String splitAndTrim() {
+        String[] cookies = header.split(";");
+        for (String cookie : cookies) {
+            if (cookie.trim().startsWith(TOKEN_KEY)) {
+                return cookie.trim().substring(TOKEN_KEY.length() + 1).replaceAll("\"", "");
+            }
+        }
+        return null;
+    }
+}
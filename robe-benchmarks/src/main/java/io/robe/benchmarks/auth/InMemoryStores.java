@@ -0,0 +1,261 @@
+package io.robe.benchmarks.auth;
+
+import com.google.common.base.Optional;
+import io.robe.auth.data.entry.PermissionEntry;
+import io.robe.auth.data.entry.RoleEntry;
+import io.robe.auth.data.entry.RoleGroupEntry;
+import io.robe.auth.data.entry.ServiceEntry;
+import io.robe.auth.data.entry.UserEntry;
+import io.robe.auth.data.store.BulkPermissionStore;
+import io.robe.auth.data.store.BulkRoleGroupStore;
+import io.robe.auth.data.store.BulkServiceStore;
+import io.robe.auth.data.store.PermissionStore;
+import io.robe.auth.data.store.RoleGroupStore;
+import io.robe.auth.data.store.RoleStore;
+import io.robe.auth.data.store.ServiceStore;
+import io.robe.auth.data.store.UserStore;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Map based fakes of the auth stores. Data is built once, lookups do not allocate except result collections.
+ * Layout: every user has the "group" role which includes {@code subRoles} roles, every sub role has
+ * {@code servicesPerRole} service permissions.
+ */
+public class InMemoryStores {
+
+    public static final String GROUP_ROLE = "group";
+
+    private final Map<String, User> users = new HashMap<>();
+    private final Map<String, Role> roles = new HashMap<>();
+    private final Map<String, Set<Permission>> permissions = new HashMap<>();
+    private final Map<String, Set<RoleGroup>> roleGroups = new HashMap<>();
+    private final Map<String, Service> services = new HashMap<>();
+
+    public InMemoryStores(int userCount, int subRoles, int servicesPerRole) {
+        roles.put(GROUP_ROLE, new Role(GROUP_ROLE));
+        Set<RoleGroup> groups = new HashSet<>();
+        for (int r = 0; r < subRoles; r++) {
+            String roleId = "role" + r;
+            roles.put(roleId, new Role(roleId));
+            groups.add(new RoleGroup(GROUP_ROLE + "-" + roleId, roleId));
+            Set<Permission> rolePermissions = new HashSet<>();
+            for (int s = 0; s < servicesPerRole; s++) {
+                String serviceId = roleId + "-service" + s;
+                services.put(serviceId, new Service("/" + roleId + "/resource" + s + "/{id}", ServiceEntry.Method.values()[s % 5]));
+                rolePermissions.add(new Permission(serviceId));
+            }
+            permissions.put(roleId, rolePermissions);
+        }
+        roleGroups.put(GROUP_ROLE, groups);
+        for (int u = 0; u < userCount; u++) {
+            String username = username(u);
+            users.put(username, new User(username, GROUP_ROLE));
+        }
+    }
+
+    public static String username(int index) {
+        return "user" + index + "@robe.io";
+    }
+
+    public UserStore getUserStore() {
+        return new UserStore() {
+            @Override
+            public Optional<? extends UserEntry> findByUsername(String username) {
+                return Optional.fromNullable(users.get(username));
+            }
+
+            @Override
+            public Optional<? extends UserEntry> changePassword(String username, String newPassword) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    public RoleStore getRoleStore() {
+        return new RoleStore() {
+            @Override
+            public Optional<? extends RoleEntry> findByRoleId(String id) {
+                return Optional.fromNullable(roles.get(id));
+            }
+        };
+    }
+
+    public PermissionStore getPermissionStore() {
+        return new BulkPermissionStore() {
+            @Override
+            public Set<? extends PermissionEntry> findByRoleId(String id) {
+                Set<Permission> result = permissions.get(id);
+                return result == null ? Collections.<Permission>emptySet() : result;
+            }
+
+            @Override
+            public Set<? extends PermissionEntry> findByRoleIds(Collection<String> ids) {
+                Set<Permission> result = new HashSet<>();
+                for (String id : ids) {
+                    Set<Permission> rolePermissions = permissions.get(id);
+                    if (rolePermissions != null) {
+                        result.addAll(rolePermissions);
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
+    public RoleGroupStore getRoleGroupStore() {
+        return new BulkRoleGroupStore() {
+            @Override
+            public Set<? extends RoleGroupEntry> findByGroupId(String groupOid) {
+                Set<RoleGroup> result = roleGroups.get(groupOid);
+                return result == null ? Collections.<RoleGroup>emptySet() : result;
+            }
+
+            @Override
+            public Set<? extends RoleGroupEntry> findByGroupIds(Collection<String> groupOids) {
+                Set<RoleGroup> result = new HashSet<>();
+                for (String groupOid : groupOids) {
+                    Set<RoleGroup> groups = roleGroups.get(groupOid);
+                    if (groups != null) {
+                        result.addAll(groups);
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
+    public ServiceStore getServiceStore() {
+        return new BulkServiceStore() {
+            @Override
+            public Optional<? extends ServiceEntry> findByCode(String id) {
+                return Optional.fromNullable(services.get(id));
+            }
+
+            @Override
+            public List<? extends ServiceEntry> findByCodes(Collection<String> ids) {
+                List<Service> result = new ArrayList<>(ids.size());
+                for (String id : ids) {
+                    Service service = services.get(id);
+                    if (service != null) {
+                        result.add(service);
+                    }
+                }
+                return result;
+            }
+        };
+    }
+
+    private static class User implements UserEntry {
+        private final String username;
+        private final String roleId;
+
+        private User(String username, String roleId) {
+            this.username = username;
+            this.roleId = roleId;
+        }
+
+        @Override
+        public boolean isActive() {
+            return true;
+        }
+
+        @Override
+        public String getUserId() {
+            return username;
+        }
+
+        @Override
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public String getPassword() {
+            return "";
+        }
+
+        @Override
+        public String getRoleId() {
+            return roleId;
+        }
+    }
+
+    private static class Role implements RoleEntry {
+        private final String id;
+
+        private Role(String id) {
+            this.id = id;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+    }
+
+    private static class RoleGroup implements RoleGroupEntry {
+        private final String id;
+        private final String roleId;
+
+        private RoleGroup(String id, String roleId) {
+            this.id = id;
+            this.roleId = roleId;
+        }
+
+        @Override
+        public String getId() {
+            return id;
+        }
+
+        @Override
+        public String getRoleId() {
+            return roleId;
+        }
+    }
+
+    private static class Permission implements PermissionEntry {
+        private final String serviceId;
+
+        private Permission(String serviceId) {
+            this.serviceId = serviceId;
+        }
+
+        @Override
+        public String getRestrictedItemId() {
+            return serviceId;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.SERVICE;
+        }
+    }
+
+    private static class Service implements ServiceEntry {
+        private final String path;
+        private final Method method;
+
+        private Service(String path, Method method) {
+            this.path = path;
+            this.method = method;
+        }
+
+        @Override
+        public String getPath() {
+            return path;
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+    }
+}
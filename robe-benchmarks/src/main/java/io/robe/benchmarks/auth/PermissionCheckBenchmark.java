@@ -0,0 +1,142 @@
+package io.robe.benchmarks.auth;
+
+import io.robe.auth.token.Token;
+import io.robe.auth.token.TokenManager;
+import io.robe.auth.token.jersey.PermissionMatcher;
+import io.robe.auth.token.jersey.TokenFactory;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.internal.monitoring.ApplicationEventImpl;
+import org.glassfish.jersey.server.internal.routing.UriRoutingContext;
+import org.glassfish.jersey.server.monitoring.ApplicationEvent;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.server.model.ResourceModel;
+import org.glassfish.jersey.uri.UriTemplate;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import java.net.URI;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Permission check of {@link TokenFactory} for a matched resource method. Compares the compiled check of
+ * {@link PermissionMatcher} with building the permission key from the matched templates, both through the
+ * public API of {@link PermissionMatcher} and {@link Token}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCheckBenchmark {
+
+    @Param({"20", "200"})
+    public int permissionCount;
+
+    private Token token;
+    private ExtendedUriInfo uriInfo;
+    private List<UriTemplate> matchedTemplates;
+
+    @Setup
+    public void setUp() throws Exception {
+        AuthBenchmarks.configure(AuthBenchmarks.configuration("io.robe.auth.token.BasicToken", 1, 0));
+
+        ResourceModel model = new ResourceModel.Builder(false).addResource(Resource.from(UserResource.class)).build();
+        new PermissionMatcher().onEvent(new ApplicationEventImpl(ApplicationEvent.Type.INITIALIZATION_APP_FINISHED,
+                null, null, null, null, model));
+        ResourceMethod method = null;
+        for (Resource child : model.getResources().get(0).getChildResources()) {
+            for (ResourceMethod candidate : child.getResourceMethods()) {
+                if (candidate.getHttpMethod().equals("GET")) {
+                    method = candidate;
+                }
+            }
+        }
+
+        ContainerRequest request = new ContainerRequest(URI.create("http://localhost/"),
+                URI.create("http://localhost/users/42"), "GET", null, new MapPropertiesDelegate());
+        ((UriRoutingContext) request.getUriInfo()).setMatchedResourceMethod(method);
+        uriInfo = request.getUriInfo();
+        // Jersey keeps the matched templates in reverse order.
+        matchedTemplates = Arrays.asList(new UriTemplate("/{id}"), new UriTemplate("/users"));
+
+        Set<String> permissions = new HashSet<>();
+        for (int i = permissions.size(); permissions.size() < permissionCount - 1; i++) {
+            permissions.add("/resource" + i + "/{id}:GET");
+        }
+        permissions.add("/users/{id}:GET");
+        token = TokenManager.getInstance().createToken("admin", "admin", DateTime.now().plusHours(1),
+                Collections.<String, String>emptyMap());
+        token.setPermissions(Collections.unmodifiableSet(permissions));
+        if (!compiled() || !templates()) {
+            throw new IllegalStateException("Permission check failed");
+        }
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        int id = PermissionMatcher.getId(uriInfo.getMatchedResourceMethod());
+        return id >= 0 && uriInfo.getMatchedResourceLocators().isEmpty()
+                && PermissionMatcher.isPermitted(token.getPermissions(), id);
+    }
+
+    @Benchmark
+    public boolean templates() {
+        StringBuilder path = new StringBuilder();
+        for (UriTemplate template : matchedTemplates) {
+            path.insert(0, template.getTemplate());
+        }
+        path.append(":").append("GET");
+        return token.getPermissions().contains(path.toString());
+    }
+
+    @Path("users")
+    public static class UserResource {
+
+        @GET
+        public String list() {
+            return null;
+        }
+
+        @GET
+        @Path("{id}")
+        public String get(@PathParam("id") String id) {
+            return null;
+        }
+
+        @PUT
+        @Path("{id}")
+        public String update(@PathParam("id") String id) {
+            return null;
+        }
+
+        @DELETE
+        @Path("{id}")
+        public String delete(@PathParam("id") String id) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package io.robe.benchmarks.auth;
+
+import io.robe.auth.token.Token;
+import io.robe.auth.token.TokenManager;
+import org.joda.time.DateTime;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token construction (new token and its string) and parsing for both token classes.
+ * Runs with 4 threads by default so the encryptor pool size matters, change with -t.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class TokenBenchmark {
+
+    @Param({"io.robe.auth.token.BasicToken", "io.robe.auth.token.SignedToken"})
+    public String tokenClass;
+
+    @Param({"1", "4", "8"})
+    public int poolSize;
+
+    @Param({"0", "10000"})
+    public int tokenCacheSize;
+
+    private Map<String, String> attributes;
+    private String tokenString;
+
+    @Setup
+    public void setUp() throws Exception {
+        AuthBenchmarks.configure(AuthBenchmarks.configuration(tokenClass, poolSize, tokenCacheSize));
+        attributes = new HashMap<>();
+        attributes.put("userAgent", "Mozilla/5.0 (X11; Linux x86_64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/49.0 Safari/537.36");
+        tokenString = create();
+    }
+
+    @Benchmark
+    public String create() throws Exception {
+        Token token = TokenManager.getInstance().createToken("6f8a51bbd54a4b1e9c04c5a1e4a2f7c3", "admin@robe.io",
+                DateTime.now().plusHours(1), attributes);
+        return token.getTokenString();
+    }
+
+    @Benchmark
+    public Token parse() throws Exception {
+        return TokenManager.getInstance().createToken(tokenString);
+    }
+}
@@ -1,8 +1,10 @@
 package io.robe.common.service.headers;
 
+import io.robe.common.service.search.model.CountMode;
 import io.robe.common.service.search.model.SearchModel;
 
 import javax.servlet.http.HttpServletResponse;
+import java.util.Locale;
 
 public final class ResponseHeadersUtil {
     private ResponseHeadersUtil() {
@@ -13,6 +15,33 @@ public final class ResponseHeadersUtil {
         model.getResponse().setHeader("X-Total-Count", model.getTotalCount() + "");
     }
 
+    /**
+     * Adds the applied count mode, the total count if calculated and the has more flag if filled.
+     *
+     * @param model search model after the fetch
+     */
+    public static final void addCount(SearchModel model) {
+        HttpServletResponse response = model.getResponse();
+        response.setHeader("X-Count-Mode", model.getCountMode().name().toLowerCase(Locale.ENGLISH));
+        if (model.getCountMode() != CountMode.NONE) {
+            addTotalCount(model);
+        }
+        if (model.getHasMore() != null) {
+            response.setHeader("X-Has-More", model.getHasMore().toString());
+        }
+    }
+
+    /**
+     * Adds the cursor of the next page if filled.
+     *
+     * @param model search model after the fetch
+     */
+    public static final void addNextCursor(SearchModel model) {
+        if (model.getNextCursor() != null) {
+            model.getResponse().setHeader("X-Next-Cursor", model.getNextCursor());
+        }
+    }
+
     public static final void addLocation(HttpServletResponse response, String location) {
         response.setHeader("Location", location);
     }
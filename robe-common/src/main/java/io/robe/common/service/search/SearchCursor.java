@@ -0,0 +1,62 @@
+package io.robe.common.service.search;
+
+import com.google.common.base.Charsets;
+import com.google.common.io.BaseEncoding;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes and decodes the opaque cursor of the keyset pagination (_after parameter).
+ * A cursor holds the sort values and the oid of the last row of a page as strings.
+ * Every value is encoded separately with url safe base64 and joined with dots, null values are written as "~".
+ */
+public final class SearchCursor {
+
+    private static final BaseEncoding ENCODING = BaseEncoding.base64Url().omitPadding();
+
+    private static final String NULL = "~";
+
+    private SearchCursor() {
+
+    }
+
+    /**
+     * Encodes the values to a cursor.
+     *
+     * @param values sort values and oid of the last row
+     * @return cursor
+     */
+    public static String encode(List<String> values) {
+        StringBuilder builder = new StringBuilder();
+        for (String value : values) {
+            if (builder.length() != 0) {
+                builder.append('.');
+            }
+            builder.append(value == null ? NULL : ENCODING.encode(value.getBytes(Charsets.UTF_8)));
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Decodes the values of a cursor.
+     *
+     * @param cursor cursor created by {@link #encode(List)}
+     * @return values
+     * @throws IllegalArgumentException if the cursor is not valid
+     */
+    public static List<String> decode(String cursor) {
+        List<String> values = new ArrayList<>();
+        int start = 0;
+        while (start <= cursor.length()) {
+            int end = cursor.indexOf('.', start);
+            if (end < 0) {
+                end = cursor.length();
+            }
+            String part = cursor.substring(start, end);
+            values.add(NULL.equals(part) ? null : new String(ENCODING.decode(part), Charsets.UTF_8));
+            start = end + 1;
+        }
+        return values;
+    }
+}
@@ -1,13 +1,17 @@
 package io.robe.common.service.search;
 
+import io.robe.common.service.search.model.CountMode;
 import io.robe.common.service.search.model.SearchModel;
 import org.glassfish.jersey.server.internal.inject.AbstractContainerRequestValueFactory;
 
 import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Context;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriInfo;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 
@@ -20,7 +24,17 @@ public class SearchFactory extends AbstractContainerRequestValueFactory<SearchMo
     @Context
     private HttpServletResponse response;
 
+    private final CountMode countMode;
+
+    private final int countLimit;
+
     public SearchFactory() {
+        this(CountMode.EXACT, 10000);
+    }
+
+    public SearchFactory(CountMode countMode, int countLimit) {
+        this.countMode = countMode;
+        this.countLimit = countLimit;
     }
 
     /**
@@ -35,6 +49,8 @@ public class SearchFactory extends AbstractContainerRequestValueFactory<SearchMo
         SearchModel searchModel = new SearchModel();
 
         searchModel.setResponse(response);
+        searchModel.setCountMode(countMode);
+        searchModel.setCountLimit(countLimit);
 
         String method = getContainerRequest().getMethod();
 
@@ -59,6 +75,10 @@ public class SearchFactory extends AbstractContainerRequestValueFactory<SearchMo
                     searchModel.setSort(param.getValue().get(0).split(","));
                 } else if ("_filter".equalsIgnoreCase(param.getKey())) {
                     searchModel.setFilter(param.getValue().get(0));
+                } else if ("_count".equalsIgnoreCase(param.getKey())) {
+                    setCount(searchModel, param.getValue().get(0));
+                } else if ("_after".equalsIgnoreCase(param.getKey())) {
+                    searchModel.setAfter(param.getValue().get(0));
                 }
             }
         }
@@ -66,4 +86,29 @@ public class SearchFactory extends AbstractContainerRequestValueFactory<SearchMo
 
         return searchModel;
     }
+
+    /**
+     * Sets the count mode from the _count parameter. Value is a mode name (exact, estimated, capped, none) or
+     * a number (at least 1) for a capped count with the given limit.
+     *
+     * @param searchModel model to fill
+     * @param value       value of the parameter
+     * @throws WebApplicationException with 400 status if the value is not a mode or a valid limit
+     */
+    static void setCount(SearchModel searchModel, String value) {
+        try {
+            if (!value.isEmpty() && Character.isDigit(value.charAt(0))) {
+                int limit = Integer.parseInt(value);
+                if (limit < 1) {
+                    throw new IllegalArgumentException("Count limit must be at least 1");
+                }
+                searchModel.setCountMode(CountMode.CAPPED);
+                searchModel.setCountLimit(limit);
+            } else {
+                searchModel.setCountMode(CountMode.valueOf(value.toUpperCase(Locale.ENGLISH)));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException("Invalid _count: " + value, e, Response.Status.BAD_REQUEST);
+        }
+    }
 }
@@ -31,7 +31,7 @@ public class SearchFactoryProvider extends AbstractValueFactoryProvider {
         Class<?> paramType = parameter.getRawType();
         SearchParam annotation = parameter.getAnnotation(SearchParam.class);
         if (annotation != null && paramType.isAssignableFrom(SearchModel.class)) {
-            return new SearchFactory();
+            return new SearchFactory(annotation.count(), annotation.countLimit());
         }
         return null;
     }
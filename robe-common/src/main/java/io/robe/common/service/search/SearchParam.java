@@ -1,5 +1,7 @@
 package io.robe.common.service.search;
 
+import io.robe.common.service.search.model.CountMode;
+
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -8,4 +10,13 @@ import java.lang.annotation.Target;
 @Target({ElementType.PARAMETER})
 @Retention(RetentionPolicy.RUNTIME)
 public @interface SearchParam {
+    /**
+     * Default count mode of the resource, can be changed by the client with the _count parameter.
+     */
+    CountMode count() default CountMode.EXACT;
+
+    /**
+     * Max count for {@link CountMode#CAPPED}.
+     */
+    int countLimit() default 10000;
 }
@@ -0,0 +1,24 @@
+package io.robe.common.service.search.model;
+
+/**
+ * Defines how the total count of a paged search is calculated.
+ */
+public enum CountMode {
+    /**
+     * Exact count with a second count query.
+     */
+    EXACT,
+    /**
+     * Row count from database statistics. Falls back to {@link #CAPPED} if the search has criteria or the
+     * database has no statistics.
+     */
+    ESTIMATED,
+    /**
+     * Counts up to the count limit, {@link SearchModel#getHasMore()} tells if there are more rows.
+     */
+    CAPPED,
+    /**
+     * No count query, one more row than the limit is fetched to fill {@link SearchModel#getHasMore()}.
+     */
+    NONE
+}
@@ -36,6 +36,26 @@ public class SearchModel {
     private String[] sort;
     private String filter;
     private long totalCount;
+    /**
+     * Count calculation of the paged fetches.
+     */
+    private CountMode countMode = CountMode.EXACT;
+    /**
+     * Max count for {@link CountMode#CAPPED}.
+     */
+    private int countLimit = 10000;
+    /**
+     * Filled if the count mode can not tell the exact total count.
+     */
+    private Boolean hasMore;
+    /**
+     * Cursor of the keyset pagination, empty for the first page. Offset is not used if it is set.
+     */
+    private String after;
+    /**
+     * Cursor of the next page, filled if the page is full.
+     */
+    private String nextCursor;
     private HttpServletResponse response;
 
     public SearchModel() {
@@ -97,6 +117,46 @@ public class SearchModel {
         this.totalCount = totalCount;
     }
 
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    public void setCountMode(CountMode countMode) {
+        this.countMode = countMode;
+    }
+
+    public int getCountLimit() {
+        return countLimit;
+    }
+
+    public void setCountLimit(int countLimit) {
+        this.countLimit = countLimit;
+    }
+
+    public Boolean getHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(Boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public void setAfter(String after) {
+        this.after = after;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     public HttpServletResponse getResponse() {
         return response;
     }
@@ -0,0 +1,22 @@
+package io.robe.common.service.search;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public class SearchCursorTest {
+    @Test
+    public void encodeDecode() throws Exception {
+        List<String> values = Arrays.asList("Zeynep Çelik", null, "", "1466035200000", "ff8081815566ab12015566ab3a0f0000");
+        String cursor = SearchCursor.encode(values);
+        Assert.assertTrue(cursor.matches("[A-Za-z0-9_\\-.~]*"));
+        Assert.assertEquals(values, SearchCursor.decode(cursor));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decodeInvalid() throws Exception {
+        SearchCursor.decode("not a cursor");
+    }
+}
@@ -0,0 +1,32 @@
+package io.robe.common.service.search;
+
+import io.robe.common.service.search.model.CountMode;
+import io.robe.common.service.search.model.SearchModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.ws.rs.WebApplicationException;
+
+public class SearchFactoryTest {
+    @Test
+    public void setCount() throws Exception {
+        SearchModel search = new SearchModel();
+        SearchFactory.setCount(search, "Estimated");
+        Assert.assertEquals(CountMode.ESTIMATED, search.getCountMode());
+        SearchFactory.setCount(search, "500");
+        Assert.assertEquals(CountMode.CAPPED, search.getCountMode());
+        Assert.assertEquals(500, search.getCountLimit());
+    }
+
+    @Test
+    public void setCountInvalid() throws Exception {
+        for (String value : new String[]{"", "foo", "0", "-1", "99999999999"}) {
+            try {
+                SearchFactory.setCount(new SearchModel(), value);
+                Assert.fail("Accepted _count: " + value);
+            } catch (WebApplicationException e) {
+                Assert.assertEquals(400, e.getResponse().getStatus());
+            }
+        }
+    }
+}
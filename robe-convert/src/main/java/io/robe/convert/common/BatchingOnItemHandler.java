@@ -0,0 +1,72 @@
+package io.robe.convert.common;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the items given to {@link #onItem(Object)} and gives them to an {@link OnBatchHandler} in batches.
+ * A batch is given when it reaches the batch size or when its first item waited longer than the flush interval.
+ * Time is checked at every item, so a batch waits for the next item or {@link #flush()} if the importer stalls.
+ * Not thread safe, importers call the handler from one thread.
+ */
+public class BatchingOnItemHandler<T> implements OnItemHandler<T> {
+
+    public static final int DEFAULT_BATCH_SIZE = 500;
+
+    private final OnBatchHandler<T> handler;
+
+    private final int batchSize;
+
+    private final long flushIntervalNanos;
+
+    private List<T> batch;
+
+    private long batchStarted;
+
+    /**
+     * @param handler       handler of the batches
+     * @param batchSize     max items of a batch
+     * @param flushInterval max milliseconds to keep an item, 0 or less flushes only by size
+     */
+    public BatchingOnItemHandler(OnBatchHandler<T> handler, int batchSize, long flushInterval) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.handler = handler;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval > 0 ? TimeUnit.MILLISECONDS.toNanos(flushInterval) : 0;
+        this.batch = new ArrayList<>(batchSize);
+    }
+
+    public BatchingOnItemHandler(OnBatchHandler<T> handler, int batchSize) {
+        this(handler, batchSize, 0);
+    }
+
+    @Override
+    public void onItem(T t) throws Exception {
+        if (batch.isEmpty()) {
+            batchStarted = System.nanoTime();
+        }
+        batch.add(t);
+        if (batch.size() >= batchSize || (flushIntervalNanos > 0 && System.nanoTime() - batchStarted >= flushIntervalNanos)) {
+            flush();
+        }
+    }
+
+    /**
+     * Gives the collected items to the handler, call after the import to give the last batch.
+     */
+    public void flush() throws Exception {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<T> items = batch;
+        batch = new ArrayList<>(batchSize);
+        handler.onBatch(items);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+}
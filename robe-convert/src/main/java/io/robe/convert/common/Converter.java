@@ -35,20 +35,27 @@ public abstract class Converter {
         return ((ann != null) && !ann.ignore());
     }
 
+    /**
+     * Returns the codec of the data class which was given at constructor.
+     *
+     * @return cached codec of the data class.
+     */
+    public RowCodec getRowCodec() {
+        return RowCodec.of(dataClass);
+    }
+
     /**
      * Returns an ordered list of the fields which belongs to the given class.
+     * Fields are read from the cached {@link RowCodec} of the class.
      *
      * @param clazz class to get types.
      * @return ordered list of fields.
      */
     protected final Collection<FieldEntry> getFields(Class clazz) {
-        LinkedList<FieldEntry> fieldList = getAllFields(clazz);
-
-        Collections.sort(fieldList, new Comparator<FieldEntry>() {
-            public int compare(FieldEntry o1, FieldEntry o2) {
-                return o1.compareTo(o2);
-            }
-        });
+        LinkedList<FieldEntry> fieldList = new LinkedList<>();
+        for (RowCodec.FieldCodec field : RowCodec.of(clazz).getFields()) {
+            fieldList.add(new FieldEntry(field.getConvert().order(), field.getField()));
+        }
         return fieldList;
     }
 
@@ -22,6 +22,19 @@ public abstract class Importer<T> extends Converter {
 
     public abstract void importStream(InputStream inputStream, OnItemHandler handler, String charSetName) throws Exception;
 
+    // invokes handler with the items in batches, good for bulk inserts or queues, flushInterval is in milliseconds
+    public void importStream(InputStream inputStream, OnBatchHandler<T> handler, int batchSize, long flushInterval) throws Exception {
+        BatchingOnItemHandler<T> batchingHandler = new BatchingOnItemHandler<>(handler, batchSize, flushInterval);
+        importStream(inputStream, batchingHandler);
+        batchingHandler.flush();
+    }
+
+    public void importStream(InputStream inputStream, OnBatchHandler<T> handler, int batchSize, long flushInterval, String charSetName) throws Exception {
+        BatchingOnItemHandler<T> batchingHandler = new BatchingOnItemHandler<>(handler, batchSize, flushInterval);
+        importStream(inputStream, batchingHandler, charSetName);
+        batchingHandler.flush();
+    }
+
     protected class DefaultOnItemHandler implements OnItemHandler<T> {
         private List<T> list = null;
 
@@ -0,0 +1,16 @@
+package io.robe.convert.common;
+
+import java.util.List;
+
+/**
+ * Handler of the imported items in batches, ex. to insert them with a JDBC batch or to put them to a queue at once.
+ *
+ * @see BatchingOnItemHandler
+ */
+public interface OnBatchHandler<T> {
+
+    /**
+     * @param items items in the order they are given by the importer, the list is not used by the importer later
+     */
+    public void onBatch(List<T> items) throws Exception;
+}
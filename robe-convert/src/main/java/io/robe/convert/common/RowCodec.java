@@ -0,0 +1,264 @@
+package io.robe.convert.common;
+
+import io.robe.convert.common.annotation.Convert;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compiled view of a data class for the converters. Annotated fields are read, ordered and made accessible once for
+ * every class, values are read and written with method handles, so rows are converted without looking up the
+ * annotations or toggling the accessibility of the fields for every cell.
+ * Codecs are cached and shared between threads.
+ */
+public final class RowCodec {
+
+    private static final ConcurrentMap<Class<?>, RowCodec> CODECS = new ConcurrentHashMap<>();
+
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(Object.class);
+
+    private final Class<?> dataClass;
+
+    private final MethodHandle constructor;
+
+    private final List<FieldCodec> fields;
+
+    private final Map<String, FieldCodec> declaredFields;
+
+    private RowCodec(Class<?> dataClass) {
+        this.dataClass = dataClass;
+        this.constructor = findConstructor(dataClass);
+
+        List<FieldCodec> list = new ArrayList<>();
+        collectFields(dataClass, list);
+        // Stable sort, fields with the same order keep the declaration order.
+        Collections.sort(list);
+        this.fields = Collections.unmodifiableList(list);
+
+        Map<String, FieldCodec> map = new HashMap<>();
+        for (Field field : dataClass.getDeclaredFields()) {
+            Convert convert = field.getAnnotation(Convert.class);
+            if (convert != null) {
+                map.put(field.getName(), new FieldCodec(field, convert));
+            }
+        }
+        this.declaredFields = Collections.unmodifiableMap(map);
+    }
+
+    /**
+     * Returns the codec of the class, creates and caches it at the first call.
+     *
+     * @param dataClass data class
+     * @return codec of the class
+     */
+    public static RowCodec of(Class<?> dataClass) {
+        RowCodec codec = CODECS.get(dataClass);
+        if (codec == null) {
+            RowCodec created = new RowCodec(dataClass);
+            codec = CODECS.putIfAbsent(dataClass, created);
+            if (codec == null) {
+                codec = created;
+            }
+        }
+        return codec;
+    }
+
+    private static void collectFields(Class<?> clazz, List<FieldCodec> list) {
+        if (clazz.getSuperclass() != null) {
+            collectFields(clazz.getSuperclass(), list);
+        }
+        for (Field field : clazz.getDeclaredFields()) {
+            Convert convert = field.getAnnotation(Convert.class);
+            if (convert != null && !convert.ignore()) {
+                list.add(new FieldCodec(field, convert));
+            }
+        }
+    }
+
+    private static MethodHandle findConstructor(Class<?> dataClass) {
+        try {
+            Constructor<?> constructor = dataClass.getDeclaredConstructor();
+            constructor.setAccessible(true);
+            return MethodHandles.lookup().unreflectConstructor(constructor).asType(CONSTRUCTOR_TYPE);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            // Class can still be exported, new instances fail.
+            return null;
+        }
+    }
+
+    public Class<?> getDataClass() {
+        return dataClass;
+    }
+
+    /**
+     * @return fields which are annotated with {@link Convert} and not ignored, including the fields of the super
+     * classes, ordered by {@link Convert#order()}
+     */
+    public List<FieldCodec> getFields() {
+        return fields;
+    }
+
+    /**
+     * Returns the field which is declared in the data class and annotated with {@link Convert}. Ignored fields are
+     * included.
+     *
+     * @param name name of the field
+     * @return field or null if there is no annotated field with the name
+     */
+    public FieldCodec getField(String name) {
+        return declaredFields.get(name);
+    }
+
+    /**
+     * Creates an instance of the data class with its no argument constructor.
+     *
+     * @return new instance
+     * @throws InstantiationException if the class has no no argument constructor or the constructor fails
+     */
+    public Object newInstance() throws InstantiationException {
+        if (constructor == null) {
+            throw new InstantiationException(dataClass.getName() + " has no no argument constructor.");
+        }
+        try {
+            return (Object) constructor.invokeExact();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            InstantiationException exception = new InstantiationException(e.getMessage());
+            exception.initCause(e);
+            throw exception;
+        }
+    }
+
+    /**
+     * Field of a {@link RowCodec} with its annotation and accessors.
+     */
+    public static final class FieldCodec implements Comparable<FieldCodec> {
+
+        private final Field field;
+
+        private final Convert convert;
+
+        private final String typeName;
+
+        private final boolean enumType;
+
+        private final MethodHandle getter;
+
+        private final MethodHandle setter;
+
+        private FieldCodec(Field field, Convert convert) {
+            this.field = field;
+            this.convert = convert;
+            this.enumType = field.getType().isEnum();
+            this.typeName = enumType ? "ENUM" : field.getType().getSimpleName().toUpperCase(Locale.ENGLISH);
+            field.setAccessible(true);
+            int modifiers = field.getModifiers();
+            try {
+                MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+                // Final fields can be exported but not imported.
+                MethodHandle setter = Modifier.isFinal(modifiers) ? null : MethodHandles.lookup().unreflectSetter(field);
+                if (Modifier.isStatic(modifiers)) {
+                    // Item is ignored for the static fields.
+                    getter = MethodHandles.dropArguments(getter, 0, Object.class);
+                    setter = setter == null ? null : MethodHandles.dropArguments(setter, 0, Object.class);
+                }
+                this.getter = getter.asType(GETTER_TYPE);
+                this.setter = setter == null ? null : setter.asType(SETTER_TYPE);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Can't access field " + field, e);
+            }
+        }
+
+        public Field getField() {
+            return field;
+        }
+
+        public String getName() {
+            return field.getName();
+        }
+
+        public Class<?> getType() {
+            return field.getType();
+        }
+
+        public Convert getConvert() {
+            return convert;
+        }
+
+        /**
+         * @return title of the field, name of the field if the annotation has no title
+         */
+        public String getTitle() {
+            return convert.title().isEmpty() ? field.getName() : convert.title();
+        }
+
+        /**
+         * @return true if the type of the field is an enum
+         */
+        public boolean isEnum() {
+            return enumType;
+        }
+
+        /**
+         * Name of the type to find the parser of the field, ex. INT, STRING or ENUM for all enums.
+         *
+         * @return upper case simple name of the type
+         */
+        public String getTypeName() {
+            return typeName;
+        }
+
+        /**
+         * @param item item to read
+         * @return value of the field
+         */
+        public Object get(Object item) {
+            try {
+                return (Object) getter.invokeExact(item);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        /**
+         * @param item  item to write
+         * @param value value of the field
+         */
+        public void set(Object item, Object value) {
+            if (setter == null) {
+                throw new IllegalStateException("Can't set final field " + field);
+            }
+            try {
+                setter.invokeExact(item, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public int compareTo(FieldCodec o) {
+            return Integer.compare(convert.order(), o.convert.order());
+        }
+    }
+}
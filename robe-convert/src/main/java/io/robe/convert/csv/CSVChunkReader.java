@@ -0,0 +1,81 @@
+package io.robe.convert.csv;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Splits a csv stream into chunks of whole records. A chunk ends at the first line end (\n, \r\n or \r) after the
+ * chunk size which is not in a quoted value, so every chunk can be parsed alone.
+ * Quotes in quoted values must be escaped by doubling them, the only escaping super csv supports, so every quote
+ * character toggles the quoted state.
+ */
+final class CSVChunkReader {
+
+    private final Reader reader;
+
+    private final char quoteChar;
+
+    private final int chunkSize;
+
+    private final char[] buffer = new char[8192];
+
+    private int position;
+
+    private int limit;
+
+    private boolean inQuotes;
+
+    /**
+     * Last chunk ended with a \r at the end of the buffer, a following \n belongs to the same line end.
+     */
+    private boolean skipLineFeed;
+
+    CSVChunkReader(Reader reader, char quoteChar, int chunkSize) {
+        this.reader = reader;
+        this.quoteChar = quoteChar;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @return next chunk or null at the end of the stream
+     */
+    String next() throws IOException {
+        StringBuilder chunk = new StringBuilder(chunkSize + buffer.length);
+        while (true) {
+            if (position == limit) {
+                limit = reader.read(buffer);
+                position = 0;
+                if (limit < 0) {
+                    limit = 0;
+                    return chunk.length() == 0 ? null : chunk.toString();
+                }
+            }
+            if (skipLineFeed) {
+                skipLineFeed = false;
+                if (position < limit && buffer[position] == '\n') {
+                    position++;
+                    continue;
+                }
+            }
+            int start = position;
+            while (position < limit) {
+                char c = buffer[position++];
+                if (c == quoteChar) {
+                    // Escaped quotes are doubled, so they toggle twice.
+                    inQuotes = !inQuotes;
+                } else if ((c == '\n' || c == '\r') && !inQuotes && chunk.length() + position - start >= chunkSize) {
+                    if (c == '\r') {
+                        if (position == limit) {
+                            skipLineFeed = true;
+                        } else if (buffer[position] == '\n') {
+                            position++;
+                        }
+                    }
+                    chunk.append(buffer, start, position - start);
+                    return chunk.toString();
+                }
+            }
+            chunk.append(buffer, start, position - start);
+        }
+    }
+}
@@ -1,22 +1,23 @@
 package io.robe.convert.csv;
 
 import io.robe.convert.common.Exporter;
+import io.robe.convert.common.RowCodec.FieldCodec;
 import org.supercsv.cellprocessor.ift.CellProcessor;
-import org.supercsv.io.CsvBeanWriter;
-import org.supercsv.io.ICsvBeanWriter;
+import org.supercsv.io.CsvListWriter;
+import org.supercsv.io.ICsvListWriter;
 import org.supercsv.prefs.CsvPreference;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 public class CSVExporter<T> extends Exporter<T> {
     private CsvPreference preference = null;
-    private Collection<FieldEntry> fields = null;
-    private String[] fieldNames = null;
+    private List<FieldCodec> fields = null;
     private CellProcessor[] processors = null;
 
     public CSVExporter(Class clazz) {
@@ -26,9 +27,8 @@ public class CSVExporter<T> extends Exporter<T> {
     public CSVExporter(Class clazz, CsvPreference preference) {
         super(clazz);
         this.preference = preference;
-        this.fields = getFields(clazz);
-        this.fieldNames = new String[fields.size()];
-        this.processors = CSVUtil.convertFieldsToCellProcessors(this.fields, this.fieldNames);
+        this.fields = getRowCodec().getFields();
+        this.processors = CSVUtil.convertFieldsToCellProcessors(this.fields);
     }
 
     @Override
@@ -38,13 +38,18 @@ public class CSVExporter<T> extends Exporter<T> {
 
         Writer writer = new OutputStreamWriter(outputStream, "UTF-8");
 
-        ICsvBeanWriter beanWriter = new CsvBeanWriter(writer, preference);
+        ICsvListWriter listWriter = new CsvListWriter(writer, preference);
 
+        List<Object> values = new ArrayList<>(fields.size());
         while (iterator.hasNext()) {
             T entry = iterator.next();
-            beanWriter.write(entry, fieldNames, processors);
+            values.clear();
+            for (FieldCodec field : fields) {
+                values.add(field.get(entry));
+            }
+            listWriter.write(values, processors);
         }
-        beanWriter.flush();
+        listWriter.flush();
     }
 }
 
@@ -2,24 +2,41 @@ package io.robe.convert.csv;
 
 import io.robe.convert.common.Importer;
 import io.robe.convert.common.OnItemHandler;
+import io.robe.convert.common.RowCodec.FieldCodec;
 import org.supercsv.cellprocessor.ift.CellProcessor;
-import org.supercsv.io.CsvBeanReader;
-import org.supercsv.io.ICsvBeanReader;
+import org.supercsv.io.CsvListReader;
+import org.supercsv.io.ICsvListReader;
 import org.supercsv.prefs.CsvPreference;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
-import java.util.Collection;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 public class CSVImporter<T> extends Importer<T> {
 
+    /**
+     * Default size of the chunks of the parallel import in characters.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 256 * 1024;
+
     private CsvPreference preference = null;
-    private Collection<FieldEntry> fields = null;
-    private String[] fieldNames = null;
+    private List<FieldCodec> fields = null;
     private CellProcessor[] processors = null;
+    private int parallelism = 1;
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+    private boolean ordered = true;
 
     public CSVImporter(Class dataClass) {
         this(dataClass, CsvPreference.EXCEL_PREFERENCE.STANDARD_PREFERENCE);
@@ -28,9 +45,52 @@ public class CSVImporter<T> extends Importer<T> {
     public CSVImporter(Class dataClass, CsvPreference preference) {
         super(dataClass);
         this.preference = preference;
-        this.fields = getFields(getDataClass());
-        this.fieldNames = new String[fields.size()];
-        this.processors = CSVUtil.convertFieldsToCellProcessors(this.fields, this.fieldNames);
+        this.fields = getRowCodec().getFields();
+        this.processors = CSVUtil.convertFieldsToCellProcessors(this.fields);
+    }
+
+    /**
+     * Creates an importer which parses the stream in parallel. The stream is split into chunks of whole records, the
+     * chunks are parsed and converted on a fork join pool and the items are given to the handler on the calling
+     * thread, so handlers don't need to be thread safe. At most two chunks for every thread are read ahead, reading
+     * waits for the handler when it is slower than the parsing.
+     * Line numbers of the parse errors are relative to the chunk. Quotes in quoted values must be escaped by doubling
+     * them and the preference must not have a comment matcher, otherwise chunks can't be split at the record ends.
+     *
+     * @param dataClass   data class
+     * @param preference  csv preference
+     * @param parallelism number of the parsing threads, 1 parses on the calling thread
+     * @param chunkSize   minimum size of a chunk in characters, ex. {@link #DEFAULT_CHUNK_SIZE}
+     * @param ordered     true to give the items in the order of the stream, false to give the items of a chunk as
+     *                    soon as it is parsed
+     */
+    public CSVImporter(Class dataClass, CsvPreference preference, int parallelism, int chunkSize, boolean ordered) {
+        this(dataClass, preference);
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        }
+        if (parallelism > 1 && preference.getCommentMatcher() != null) {
+            // Quotes in the comments would break the quoted state of the chunk reader.
+            throw new IllegalArgumentException("Comments are not supported in the parallel import");
+        }
+        this.parallelism = parallelism;
+        this.chunkSize = chunkSize;
+        this.ordered = ordered;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    public boolean isOrdered() {
+        return ordered;
     }
 
     @Override
@@ -62,12 +122,102 @@ public class CSVImporter<T> extends Importer<T> {
 
         Reader reader = new InputStreamReader(inputStream, charSetName);
 
-        ICsvBeanReader csvBeanReader = new CsvBeanReader(reader, this.preference);
-        Object obj;
-        while ((obj = csvBeanReader.<T>read(getDataClass(), this.fieldNames, this.processors)) != null) {
-            handler.onItem(obj);
+        if (parallelism > 1) {
+            importParallel(reader, handler);
+            return;
+        }
+
+        ICsvListReader csvListReader = new CsvListReader(reader, this.preference);
+        List<Object> values;
+        while ((values = csvListReader.read(this.processors)) != null) {
+            handler.onItem(toItem(values));
+        }
+
+    }
+
+    private void importParallel(Reader reader, OnItemHandler handler) throws Exception {
+        CSVChunkReader chunkReader = new CSVChunkReader(reader, (char) preference.getQuoteChar(), chunkSize);
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        // Completed chunks are queued only in the unordered mode, ordered mode waits for the oldest chunk.
+        CompletionService<List<T>> completion = ordered ? null : new ExecutorCompletionService<List<T>>(pool);
+        Deque<Future<List<T>>> pending = new ArrayDeque<>();
+        int maxPending = parallelism * 2;
+        try {
+            String chunk;
+            while ((chunk = chunkReader.next()) != null) {
+                if (pending.size() == maxPending) {
+                    deliver(pending, completion, handler);
+                }
+                ChunkTask task = new ChunkTask(chunk);
+                pending.addLast(ordered ? pool.submit(task) : completion.submit(task));
+            }
+            while (!pending.isEmpty()) {
+                deliver(pending, completion, handler);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void deliver(Deque<Future<List<T>>> pending, CompletionService<List<T>> completion, OnItemHandler handler) throws Exception {
+        Future<List<T>> done;
+        if (ordered) {
+            done = pending.removeFirst();
+        } else {
+            done = completion.take();
+            pending.remove(done);
         }
+        List<T> items;
+        try {
+            items = done.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+        for (T item : items) {
+            handler.onItem(item);
+        }
+    }
 
+    private T toItem(List<Object> values) throws InstantiationException {
+        T item = (T) getRowCodec().newInstance();
+        for (int i = 0; i < fields.size(); i++) {
+            Object value = values.get(i);
+            // Empty optional columns keep the default value of the field.
+            if (value != null) {
+                fields.get(i).set(item, value);
+            }
+        }
+        return item;
+    }
+
+    /**
+     * Parses a chunk with its own processors, processors keep formats which are not thread safe.
+     */
+    private final class ChunkTask implements Callable<List<T>> {
+
+        private final String chunk;
+
+        private ChunkTask(String chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public List<T> call() throws Exception {
+            CellProcessor[] chunkProcessors = CSVUtil.convertFieldsToCellProcessors(fields);
+            ICsvListReader csvListReader = new CsvListReader(new StringReader(chunk), preference);
+            List<T> items = new ArrayList<>();
+            List<Object> values;
+            while ((values = csvListReader.read(chunkProcessors)) != null) {
+                items.add(toItem(values));
+            }
+            return items;
+        }
     }
 
 }
@@ -1,7 +1,7 @@
 package io.robe.convert.csv;
 
 import com.fasterxml.jackson.annotation.JsonFormat;
-import io.robe.convert.common.Converter;
+import io.robe.convert.common.RowCodec;
 import io.robe.convert.common.annotation.Convert;
 import io.robe.convert.csv.parsers.ParseDate;
 import io.robe.convert.csv.parsers.Parsers;
@@ -11,20 +11,17 @@ import org.supercsv.cellprocessor.constraint.NotNull;
 import org.supercsv.cellprocessor.ift.CellProcessor;
 
 import java.lang.reflect.Field;
-import java.util.Collection;
+import java.util.List;
 import java.util.Locale;
 
 public class CSVUtil {
 
-    static CellProcessor[] convertFieldsToCellProcessors(Collection<Converter.FieldEntry> fields, String[] fieldNames) {
+    static CellProcessor[] convertFieldsToCellProcessors(List<RowCodec.FieldCodec> fields) {
         CellProcessor[] processors = new CellProcessor[fields.size()];
         int i = 0;
-        for (Converter.FieldEntry fieldEntry : fields) {
-            Field field = fieldEntry.getValue();
-            Convert an = field.getAnnotation(Convert.class);
-            if(an == null){
-                continue;
-            }
+        for (RowCodec.FieldCodec fieldCodec : fields) {
+            Field field = fieldCodec.getField();
+            Convert an = fieldCodec.getConvert();
             CellProcessorAdaptor a = decideAdaptor(field);
             CellProcessor p = null;
             if (an.optional()) {
@@ -40,7 +37,6 @@ public class CSVUtil {
                     p = new NotNull();
                 }
             }
-            fieldNames[i] = field.getName();
             processors[i++] = p;
         }
         return processors;
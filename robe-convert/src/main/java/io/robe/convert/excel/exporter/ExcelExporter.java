@@ -1,7 +1,7 @@
 package io.robe.convert.excel.exporter;
 
 import io.robe.convert.common.Exporter;
-import io.robe.convert.common.annotation.Convert;
+import io.robe.convert.common.RowCodec.FieldCodec;
 import io.robe.convert.excel.parsers.IsParser;
 import io.robe.convert.excel.parsers.Parsers;
 import org.apache.poi.ss.usermodel.Cell;
@@ -13,10 +13,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.OutputStream;
-import java.lang.reflect.Field;
-import java.util.Collection;
 import java.util.Iterator;
-import java.util.Locale;
+import java.util.List;
 
 
 public abstract class ExcelExporter<T> extends Exporter<T> {
@@ -24,19 +22,35 @@ public abstract class ExcelExporter<T> extends Exporter<T> {
     private static final Logger LOGGER = LoggerFactory.getLogger(ExcelExporter.class);
 
     private boolean hasTitleRow;
-    private Collection<FieldEntry> fields = null;
+    private List<FieldCodec> fields = null;
     private String[] fieldNames = null;
+    private IsParser[] parsers = null;
 
     public ExcelExporter(Class dataClass) {
-        super(dataClass);
+        this(dataClass, false);
     }
 
     public ExcelExporter(Class dataClass, boolean hasTitleRow) {
         super(dataClass);
         this.hasTitleRow = hasTitleRow;
 
-        fields = getFields(getDataClass());
+        fields = getRowCodec().getFields();
         fieldNames = new String[fields.size()];
+        parsers = new IsParser[fields.size()];
+        for (int i = 0; i < fieldNames.length; i++) {
+            FieldCodec field = fields.get(i);
+            fieldNames[i] = field.getTitle();
+            parsers[i] = findParser(field);
+        }
+    }
+
+    private static IsParser findParser(FieldCodec field) {
+        try {
+            return Parsers.valueOf(field.getTypeName()).getParser();
+        } catch (IllegalArgumentException e) {
+            // Fails at the export of a row, an empty list can still be exported.
+            return null;
+        }
     }
 
     public boolean hasTitleRow() {
@@ -47,14 +61,6 @@ public abstract class ExcelExporter<T> extends Exporter<T> {
         if (iterator == null) {
             throw new NullPointerException("List can not be null or empty.");
         }
-        int fnIndex = 0;
-        for (FieldEntry fieldEntry : fields) {
-            Field field = fieldEntry.getValue();
-            Convert cfAnn = field.getAnnotation(Convert.class);
-            if (isSuitable(cfAnn)) {
-                fieldNames[fnIndex++] = cfAnn.title().equals("") ? field.getName() : cfAnn.title();
-            }
-        }
 
         Sheet sheet = workbook.createSheet(getDataClass().getSimpleName());
 
@@ -73,35 +79,23 @@ public abstract class ExcelExporter<T> extends Exporter<T> {
 
         while (iterator.hasNext()) {
             T item = iterator.next();
-            LOGGER.debug("Exporting Row " + entry);
             Row entryRow = sheet.createRow(entry++);
-            int fieldIndex = 0;
-            for (FieldEntry fieldEntry : fields) {
-                Field field = fieldEntry.getValue();
-                Convert cfAnn = field.getAnnotation(Convert.class);
-                if (isSuitable(cfAnn)) {
-                    boolean initialAccessible = field.isAccessible();
-                    field.setAccessible(true);
-                    Cell cell = entryRow.createCell(fieldIndex++);
-                    IsParser parser;
-                    if (!(field.getType() != null && (field.getType()).isEnum())) {
-                        parser = Parsers.valueOf(field.getType().getSimpleName().toUpperCase(Locale.ENGLISH)).getParser();
-                    } else {
-                        parser = Parsers.valueOf("ENUM").getParser();
-                    }
-                    parser.setCell(field.get(item), cell, field);
-                    field.setAccessible(initialAccessible);
-
+            for (int fieldIndex = 0; fieldIndex < parsers.length; fieldIndex++) {
+                FieldCodec field = fields.get(fieldIndex);
+                if (parsers[fieldIndex] == null) {
+                    throw new IllegalArgumentException("No parser for " + field.getName() + " of type " + field.getTypeName());
                 }
+                Cell cell = entryRow.createCell(fieldIndex);
+                parsers[fieldIndex].setCell(field.get(item), cell, field.getField());
             }
-            LOGGER.debug("Exported Column Size: " + fieldIndex);
         }
+        LOGGER.debug("Exported Rows: " + entry + ", Column Size: " + parsers.length);
 
         try {
             LOGGER.info("Finalizing Excel Document. Size: " + entry);
             workbook.write(outputStream);
         } catch (Exception e) {
-            throw new RuntimeException("An error occurred while writing.");
+            throw new RuntimeException("An error occurred while writing.", e);
         }
     }
 }
@@ -1,26 +1,82 @@
 package io.robe.convert.excel.exporter;
 
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Iterator;
 
+/**
+ * Exports the items to a xlsx sheet. In streaming mode rows are written to a sliding window workbook, only the rows
+ * in the window are kept in the memory and older ones are flushed to a temporary file. Streaming mode fits
+ * iterators which read the items lazily, ex. a scroll of a dao.
+ */
 public class XLSXExporter<T> extends ExcelExporter<T> {
 
+    /**
+     * Default number of rows kept in the memory in streaming mode.
+     */
+    public static final int DEFAULT_WINDOW_SIZE = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
+    private final boolean streaming;
+
+    private final int windowSize;
+
+    private final boolean compressTempFiles;
 
     public XLSXExporter(Class dataClass) {
-        super(dataClass);
+        this(dataClass, false);
     }
 
     public XLSXExporter(Class dataClass, boolean hasTitleRow) {
         super(dataClass, hasTitleRow);
+        this.streaming = false;
+        this.windowSize = DEFAULT_WINDOW_SIZE;
+        this.compressTempFiles = false;
+    }
+
+    /**
+     * Creates an exporter in streaming mode.
+     *
+     * @param dataClass         class of the items
+     * @param hasTitleRow       writes the titles of the fields as the first row if true
+     * @param windowSize        number of rows kept in the memory, -1 keeps all rows
+     * @param compressTempFiles compresses the temporary file of the flushed rows with gzip, uses less disk but more cpu
+     */
+    public XLSXExporter(Class dataClass, boolean hasTitleRow, int windowSize, boolean compressTempFiles) {
+        super(dataClass, hasTitleRow);
+        this.streaming = true;
+        this.windowSize = windowSize;
+        this.compressTempFiles = compressTempFiles;
+    }
+
+    public boolean isStreaming() {
+        return streaming;
+    }
+
+    public int getWindowSize() {
+        return windowSize;
+    }
+
+    public boolean isCompressTempFiles() {
+        return compressTempFiles;
     }
 
     @Override
     public void exportStream(OutputStream outputStream, Iterator<T> iterator) throws IOException, ClassNotFoundException, IllegalAccessException {
-        Workbook workbook = new XSSFWorkbook();
-        exportStream(outputStream, iterator, workbook);
+        if (!streaming) {
+            Workbook workbook = new XSSFWorkbook();
+            exportStream(outputStream, iterator, workbook);
+            return;
+        }
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, windowSize, compressTempFiles);
+        try {
+            exportStream(outputStream, iterator, workbook);
+        } finally {
+            // Deletes the temporary file of the flushed rows.
+            workbook.dispose();
+        }
     }
 }
@@ -2,7 +2,9 @@ package io.robe.convert.excel.importer;
 
 import io.robe.convert.common.Importer;
 import io.robe.convert.common.OnItemHandler;
+import io.robe.convert.common.RowCodec.FieldCodec;
 import io.robe.convert.common.annotation.Convert;
+import io.robe.convert.excel.parsers.IsParser;
 import io.robe.convert.excel.parsers.Parsers;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
@@ -11,25 +13,44 @@ import org.apache.poi.ss.usermodel.Workbook;
 
 import java.io.InputStream;
 import java.lang.reflect.Field;
-import java.util.*;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 
 public abstract class ExcelImporter<T> extends Importer<T> {
 
     private boolean hasTitleRow;
+    private List<FieldCodec> fields = null;
+    private IsParser[] parsers = null;
 
     public ExcelImporter(Class dataClass) {
-        super(dataClass);
+        this(dataClass, false);
     }
 
     public ExcelImporter(Class dataClass, boolean hasTitleRow) {
         super(dataClass);
         this.hasTitleRow = hasTitleRow;
+
+        fields = getRowCodec().getFields();
+        parsers = new IsParser[fields.size()];
+        for (int i = 0; i < parsers.length; i++) {
+            parsers[i] = findParser(fields.get(i));
+        }
     }
 
     public boolean hasTitleRow() {
         return hasTitleRow;
     }
 
+    private static IsParser findParser(FieldCodec field) {
+        try {
+            return Parsers.valueOf(field.getTypeName()).getParser();
+        } catch (IllegalArgumentException e) {
+            // Fails at the cells of the field, as the other parse errors.
+            return null;
+        }
+    }
+
 
     public List<T> importStream(InputStream inputStream, Workbook workbook) throws Exception {
 
@@ -44,8 +65,6 @@ public abstract class ExcelImporter<T> extends Importer<T> {
 
     public void importStream(InputStream inputStream, Workbook workbook, OnItemHandler handler) throws Exception {
 
-        Collection<FieldEntry> fields = getFields(getDataClass());
-
         Sheet sheet = workbook.getSheetAt(0);
         Iterator<Row> rowIterator = sheet.iterator();
 
@@ -53,80 +72,157 @@ public abstract class ExcelImporter<T> extends Importer<T> {
             rowIterator.next();
 
         while (rowIterator.hasNext()) {
-            T entry = (T) getDataClass().newInstance();
-            fields.iterator().next();
-            Row row = rowIterator.next();
-
-            int cellCount = 0;
-            for (FieldEntry fieldEntry : fields) {
-                Field field = fieldEntry.getValue();
-                Cell cell = row.getCell(cellCount++);
-                Convert cfAnn = field.getAnnotation(Convert.class);
-                try {
-                    if (cfAnn.optional()) {
-
-                        Object cellData;
-                        if (cell != null) {
-                            if (!(field.getType() instanceof Class && (field.getType()).isEnum())) {
-                                if(cell.getCellType() != Cell.CELL_TYPE_STRING)
-                                    cell.setCellType(Cell.CELL_TYPE_STRING);
-
-                                cellData = Parsers.valueOf(field.getType().getSimpleName().toUpperCase(Locale.ENGLISH)).getParser().parse(cell.getStringCellValue(), field);
-
-                            } else {
-                                cellData = Parsers.valueOf("ENUM").getParser().parse(cell, field);
-                            }
-
-                            checkFieldLength(cfAnn, cell, field, row);
-
-                            boolean acc = field.isAccessible();
-                            field.setAccessible(true);
-                            field.set(entry, cellData);
-                            field.setAccessible(acc);
-                        }
-                    } else {
-                        if (cell != null && !cell.toString().trim().equals("")) {
+            handler.onItem(toItem(new WorkbookRow(rowIterator.next())));
+        }
+    }
 
-                            Object cellData;
+    /**
+     * Creates an item from the cells of the row in the order of the fields.
+     *
+     * @param row row to read
+     * @return item of the row
+     */
+    T toItem(SheetRow row) throws Exception {
+        T entry = (T) getRowCodec().newInstance();
+
+        int cellCount = 0;
+        for (FieldCodec fieldCodec : fields) {
+            IsParser parser = parsers[cellCount];
+            Field field = fieldCodec.getField();
+            SheetCell cell = row.getCell(cellCount++);
+            Convert cfAnn = fieldCodec.getConvert();
+            try {
+                if (parser == null) {
+                    throw new IllegalArgumentException("No parser for " + field.getName() + " of type " + fieldCodec.getTypeName());
+                }
+                if (cfAnn.optional()) {
+
+                    if (cell != null) {
+                        Object cellData = parser.parse(fieldCodec.isEnum() ? cell : cell.getStringValue(), field);
 
-                            if (!(field.getType() instanceof Class && (field.getType()).isEnum())) {
-                                cellData = Parsers.valueOf(field.getType().getSimpleName().toUpperCase(Locale.ENGLISH)).getParser().parse(cell.toString(), field);
+                        checkFieldLength(cfAnn, cell, field, row);
 
-                            } else {
-                                cellData = Parsers.valueOf("ENUM").getParser().parse(cell, field);
-                            }
+                        fieldCodec.set(entry, cellData);
+                    }
+                } else {
+                    if (cell != null && !cell.toString().trim().equals("")) {
 
-                            checkFieldLength(cfAnn, cell, field, row);
+                        Object cellData = parser.parse(fieldCodec.isEnum() ? cell : cell.toString(), field);
 
-                            boolean acc = field.isAccessible();
-                            field.setAccessible(true);
-                            field.set(entry, cellData);
-                            field.setAccessible(acc);
-                        } else {
-                            throw new Exception("Exception at :" + row.getRowNum() + ". row and " + cellCount + ". cell ; " + field.getName() + " property can't be  null or empty ");
-                        }
+                        checkFieldLength(cfAnn, cell, field, row);
+
+                        fieldCodec.set(entry, cellData);
+                    } else {
+                        throw new Exception("Exception at :" + row.getRowNum() + ". row and " + cellCount + ". cell ; " + field.getName() + " property can't be  null or empty ");
                     }
-                } catch (Exception e) {
-                    e.printStackTrace();
                 }
+            } catch (Exception e) {
+                e.printStackTrace();
             }
-
-            handler.onItem(entry);
         }
+        return entry;
     }
 
-    private void checkFieldLength(Convert cfAnn, Cell cell, Field field, Row row) throws Exception {
+    private void checkFieldLength(Convert cfAnn, SheetCell cell, Field field, SheetRow row) throws Exception {
 
         if (cfAnn.minLength() > -1) {
-            if ((int) cell.getNumericCellValue() < cfAnn.minLength()) {
-                throw new Exception("in row " + row.getRowNum() + ", " + field.getName() + " field too short " + "(" + (int) cell.getNumericCellValue() + ")" + " min length : " + cfAnn.minLength());
+            if ((int) cell.getNumericValue() < cfAnn.minLength()) {
+                throw new Exception("in row " + row.getRowNum() + ", " + field.getName() + " field too short " + "(" + (int) cell.getNumericValue() + ")" + " min length : " + cfAnn.minLength());
             }
         }
         if (cfAnn.maxLength() > -1) {
-            if ((int) cell.getNumericCellValue() > cfAnn.maxLength()) {
-                throw new Exception("in row " + row.getRowNum() + " " + field.getName() + " too long " + "(" + (int) cell.getNumericCellValue() + ")" + " max length : " + cfAnn.maxLength());
+            if ((int) cell.getNumericValue() > cfAnn.maxLength()) {
+                throw new Exception("in row " + row.getRowNum() + " " + field.getName() + " too long " + "(" + (int) cell.getNumericValue() + ")" + " max length : " + cfAnn.maxLength());
             }
         }
     }
 
+    /**
+     * Row of a sheet, either from a workbook or from the SAX events of a sheet.
+     */
+    interface SheetRow {
+
+        /**
+         * @return zero based index of the row in the sheet
+         */
+        int getRowNum();
+
+        /**
+         * @param index zero based column index
+         * @return cell or null if the row has no cell at the index
+         */
+        SheetCell getCell(int index);
+    }
+
+    /**
+     * Cell of a {@link SheetRow}. Values follow the conversions of {@link Cell}, so workbooks and streamed sheets are
+     * imported the same way.
+     */
+    interface SheetCell {
+
+        /**
+         * Converts the cell to a string cell and returns its value, ex. raw value of a numeric cell.
+         *
+         * @return value as string
+         */
+        String getStringValue();
+
+        /**
+         * @return numeric value
+         * @throws IllegalStateException if the cell is not numeric
+         */
+        double getNumericValue();
+
+        /**
+         * @return value as {@link Cell#toString()} gives
+         */
+        @Override
+        String toString();
+    }
+
+    private static final class WorkbookRow implements SheetRow {
+
+        private final Row row;
+
+        private WorkbookRow(Row row) {
+            this.row = row;
+        }
+
+        @Override
+        public int getRowNum() {
+            return row.getRowNum();
+        }
+
+        @Override
+        public SheetCell getCell(int index) {
+            Cell cell = row.getCell(index);
+            return cell == null ? null : new WorkbookCell(cell);
+        }
+    }
+
+    private static final class WorkbookCell implements SheetCell {
+
+        private final Cell cell;
+
+        private WorkbookCell(Cell cell) {
+            this.cell = cell;
+        }
+
+        @Override
+        public String getStringValue() {
+            if (cell.getCellType() != Cell.CELL_TYPE_STRING)
+                cell.setCellType(Cell.CELL_TYPE_STRING);
+            return cell.getStringCellValue();
+        }
+
+        @Override
+        public double getNumericValue() {
+            return cell.getNumericCellValue();
+        }
+
+        @Override
+        public String toString() {
+            return cell.toString();
+        }
+    }
 }
@@ -1,13 +1,23 @@
 package io.robe.convert.excel.importer;
 
 import io.robe.convert.common.OnItemHandler;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedList;
 import java.util.List;
 
+/**
+ * Imports the first sheet of a xlsx file. Streams are read with the SAX events of the sheet, rows are converted and
+ * given to the handler as they are parsed, so large sheets are imported without loading the workbook.
+ * The stream is copied to a temporary file first, a zip package can't be read partially from a stream.
+ */
 public class XLSXImporter<T> extends ExcelImporter<T> {
     private static Logger LOGGER = LoggerFactory.getLogger(XLSXImporter.class);
 
@@ -21,7 +31,9 @@ public class XLSXImporter<T> extends ExcelImporter<T> {
 
     @Override
     public List<T> importStream(InputStream inputStream) throws Exception {
-        return importStream(inputStream, new XSSFWorkbook(inputStream));
+        final List<T> list = new LinkedList<T>();
+        importStream(inputStream, new DefaultOnItemHandler(list));
+        return list;
     }
 
     @Override
@@ -31,13 +43,37 @@ public class XLSXImporter<T> extends ExcelImporter<T> {
     }
 
     @Override
-    public void importStream(InputStream inputStream, OnItemHandler handler) throws Exception {
-        importStream(inputStream, new XSSFWorkbook(inputStream), handler);
+    public void importStream(InputStream inputStream, final OnItemHandler handler) throws Exception {
+        File file = File.createTempFile("robe-convert", ".xlsx");
+        try {
+            Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ);
+            try {
+                XLSXSheetReader.read(pkg, new OnItemHandler<SheetRow>() {
+                    private boolean skipTitle = hasTitleRow();
+
+                    @Override
+                    public void onItem(SheetRow row) throws Exception {
+                        if (skipTitle) {
+                            skipTitle = false;
+                            return;
+                        }
+                        handler.onItem(toItem(row));
+                    }
+                });
+            } finally {
+                pkg.revert();
+            }
+        } finally {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
     }
 
     @Override
     public void importStream(InputStream inputStream, OnItemHandler handler, String charSetName) throws Exception {
         LOGGER.warn("Charset" + charSetName + " ignored, Apache poi detects encoding dynamically");
-        importStream(inputStream, new XSSFWorkbook(inputStream), handler);
+        importStream(inputStream, handler);
     }
 }
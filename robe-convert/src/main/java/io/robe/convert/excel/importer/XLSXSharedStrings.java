@@ -0,0 +1,265 @@
+package io.robe.convert.excel.importer;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared strings table of a xlsx package. Strings are kept in the memory up to {@link #DEFAULT_MEMORY_LIMIT}
+ * characters, a larger table is moved to a temporary file and only the offsets of the strings stay in the memory.
+ * Strings read from the file are cached for the following cells. Not thread safe, must be closed to delete the file.
+ */
+final class XLSXSharedStrings extends DefaultHandler implements Closeable {
+
+    /**
+     * Max number of characters kept in the memory, 1M characters.
+     */
+    static final int DEFAULT_MEMORY_LIMIT = 1 << 20;
+
+    private static final int CACHE_SIZE = 1024;
+
+    private final int memoryLimit;
+
+    private final StringBuilder text = new StringBuilder();
+
+    private final Map<Integer, String> cache = new LinkedHashMap<Integer, String>(CACHE_SIZE * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Integer, String> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private List<String> strings = new ArrayList<>();
+
+    private long memoryChars;
+
+    private File file;
+
+    private OutputStream out;
+
+    private RandomAccessFile data;
+
+    /**
+     * Start offsets of the strings in the file and the end of the file at the last index.
+     */
+    private long[] offsets;
+
+    private int count;
+
+    private boolean inString;
+
+    private boolean inText;
+
+    private boolean inPhonetic;
+
+    XLSXSharedStrings(int memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Reads the shared strings of the package.
+     *
+     * @param pkg package to read
+     * @return strings, empty if the package has no shared strings
+     */
+    static XLSXSharedStrings read(OPCPackage pkg) throws Exception {
+        XLSXSharedStrings sharedStrings = new XLSXSharedStrings(DEFAULT_MEMORY_LIMIT);
+        try {
+            List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+            if (!parts.isEmpty()) {
+                try (InputStream in = parts.get(0).getInputStream()) {
+                    sharedStrings.read(in);
+                }
+            }
+            return sharedStrings;
+        } catch (Exception e) {
+            sharedStrings.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads the strings of a shared strings xml.
+     *
+     * @param in stream of the xml
+     */
+    void read(InputStream in) throws Exception {
+        SAXParserFactory factory = SAXParserFactory.newInstance();
+        factory.setNamespaceAware(true);
+        XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+        try {
+            xmlReader.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+        } catch (SAXException e) {
+            // Parser does not support the feature, tables have no doctype anyway.
+        }
+        xmlReader.setContentHandler(this);
+        try {
+            xmlReader.parse(new InputSource(in));
+        } catch (SAXException e) {
+            if (e.getException() != null) {
+                throw e.getException();
+            }
+            throw e;
+        }
+        if (out != null) {
+            out.close();
+            out = null;
+            data = new RandomAccessFile(file, "r");
+        }
+    }
+
+    /**
+     * @param index index of the string in the table
+     * @return string at the index
+     */
+    String getEntryAt(int index) {
+        if (strings != null) {
+            return strings.get(index);
+        }
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Shared string index: " + index + ", size: " + count);
+        }
+        String value = cache.get(index);
+        if (value == null) {
+            try {
+                byte[] bytes = new byte[(int) (offsets[index + 1] - offsets[index])];
+                data.seek(offsets[index]);
+                data.readFully(bytes);
+                value = new String(bytes, StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new IllegalStateException("Can't read shared string: " + index, e);
+            }
+            cache.put(index, value);
+        }
+        return value;
+    }
+
+    /**
+     * @return number of the strings
+     */
+    int size() {
+        return strings != null ? strings.size() : count;
+    }
+
+    /**
+     * @return true if the strings are moved to a temporary file
+     */
+    boolean isOnDisk() {
+        return file != null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (out != null) {
+                out.close();
+            }
+            if (data != null) {
+                data.close();
+            }
+        } finally {
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        switch (localName) {
+            case "si":
+                inString = true;
+                text.setLength(0);
+                break;
+            case "rPh":
+                inPhonetic = true;
+                break;
+            case "t":
+                inText = inString && !inPhonetic;
+                break;
+            default:
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "si":
+                inString = false;
+                try {
+                    add(text.toString());
+                } catch (IOException e) {
+                    throw new SAXException(e);
+                }
+                break;
+            case "rPh":
+                inPhonetic = false;
+                break;
+            case "t":
+                inText = false;
+                break;
+            default:
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (inText) {
+            text.append(ch, start, length);
+        }
+    }
+
+    private void add(String value) throws IOException {
+        if (strings != null) {
+            strings.add(value);
+            memoryChars += value.length();
+            if (memoryChars > memoryLimit) {
+                moveToFile();
+            }
+            return;
+        }
+        write(value);
+    }
+
+    private void moveToFile() throws IOException {
+        file = File.createTempFile("robe-convert", ".strings");
+        out = new BufferedOutputStream(new FileOutputStream(file));
+        offsets = new long[Math.max(strings.size() * 2, 16)];
+        List<String> moved = strings;
+        strings = null;
+        for (String value : moved) {
+            write(value);
+        }
+    }
+
+    private void write(String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (count + 1 >= offsets.length) {
+            offsets = Arrays.copyOf(offsets, offsets.length * 2);
+        }
+        out.write(bytes);
+        offsets[count + 1] = offsets[count] + bytes.length;
+        count++;
+    }
+}
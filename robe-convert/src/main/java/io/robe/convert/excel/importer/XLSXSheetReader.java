@@ -0,0 +1,316 @@
+package io.robe.convert.excel.importer;
+
+import io.robe.convert.common.OnItemHandler;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.CTWorkbookPr;
+import org.openxmlformats.schemas.spreadsheetml.x2006.main.WorkbookDocument;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParserFactory;
+import java.io.InputStream;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Reads the first sheet of a xlsx package with SAX events. Rows are given to the handler as they are parsed, so only
+ * one row is kept in the memory. Shared strings are resolved when a cell value is read, a large shared strings table
+ * is kept in a temporary file by {@link XLSXSharedStrings}.
+ */
+final class XLSXSheetReader extends DefaultHandler {
+
+    private final XLSXSharedStrings sharedStrings;
+
+    private final StylesTable styles;
+
+    private final boolean date1904;
+
+    private final OnItemHandler<ExcelImporter.SheetRow> handler;
+
+    private final StringBuilder text = new StringBuilder();
+
+    private Row row;
+
+    private int nextRowNum;
+
+    private int nextColumn;
+
+    private Cell cell;
+
+    private boolean inValue;
+
+    private boolean inFormula;
+
+    private boolean inInlineString;
+
+    private boolean inText;
+
+    private boolean inPhonetic;
+
+    private XLSXSheetReader(XLSXSharedStrings sharedStrings, XSSFReader reader,
+                            OnItemHandler<ExcelImporter.SheetRow> handler) throws Exception {
+        this.sharedStrings = sharedStrings;
+        this.styles = reader.getStylesTable();
+        this.date1904 = isDate1904(reader);
+        this.handler = handler;
+    }
+
+    /**
+     * Reads the rows of the first sheet of the package.
+     *
+     * @param pkg     package to read
+     * @param handler handler of the rows, rows are valid only in the call
+     */
+    static void read(OPCPackage pkg, OnItemHandler<ExcelImporter.SheetRow> handler) throws Exception {
+        XSSFReader reader = new XSSFReader(pkg);
+        Iterator<InputStream> sheets = reader.getSheetsData();
+        if (!sheets.hasNext()) {
+            return;
+        }
+        try (XLSXSharedStrings sharedStrings = XLSXSharedStrings.read(pkg);
+             InputStream sheet = sheets.next()) {
+            XLSXSheetReader sheetReader = new XLSXSheetReader(sharedStrings, reader, handler);
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            XMLReader xmlReader = factory.newSAXParser().getXMLReader();
+            try {
+                xmlReader.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            } catch (SAXException e) {
+                // Parser does not support the feature, sheets have no doctype anyway.
+            }
+            xmlReader.setContentHandler(sheetReader);
+            xmlReader.parse(new InputSource(sheet));
+        } catch (SAXException e) {
+            if (e.getException() != null) {
+                throw e.getException();
+            }
+            throw e;
+        }
+    }
+
+    private static boolean isDate1904(XSSFReader reader) throws Exception {
+        try (InputStream workbook = reader.getWorkbookData()) {
+            CTWorkbookPr properties = WorkbookDocument.Factory.parse(workbook).getWorkbook().getWorkbookPr();
+            return properties != null && properties.isSetDate1904() && properties.getDate1904();
+        }
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+        switch (localName) {
+            case "row":
+                String r = attributes.getValue("r");
+                row = new Row(r == null ? nextRowNum : Integer.parseInt(r) - 1);
+                nextRowNum = row.rowNum + 1;
+                nextColumn = 0;
+                break;
+            case "c":
+                String reference = attributes.getValue("r");
+                int column = reference == null ? nextColumn : new CellReference(reference).getCol();
+                nextColumn = column + 1;
+                cell = new Cell(this, attributes.getValue("t"), attributes.getValue("s"));
+                row.set(column, cell);
+                break;
+            case "v":
+                inValue = true;
+                text.setLength(0);
+                break;
+            case "f":
+                inFormula = true;
+                text.setLength(0);
+                break;
+            case "is":
+                inInlineString = true;
+                text.setLength(0);
+                break;
+            case "rPh":
+                inPhonetic = true;
+                break;
+            case "t":
+                inText = inInlineString && !inPhonetic;
+                break;
+            default:
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+        switch (localName) {
+            case "row":
+                try {
+                    handler.onItem(row);
+                } catch (Exception e) {
+                    throw new SAXException(e);
+                }
+                row = null;
+                break;
+            case "c":
+                cell = null;
+                break;
+            case "v":
+                inValue = false;
+                cell.value = text.toString();
+                break;
+            case "f":
+                inFormula = false;
+                cell.formula = text.toString();
+                break;
+            case "is":
+                inInlineString = false;
+                cell.value = text.toString();
+                break;
+            case "rPh":
+                inPhonetic = false;
+                break;
+            case "t":
+                inText = false;
+                break;
+            default:
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+        if (inValue || inFormula || inText) {
+            text.append(ch, start, length);
+        }
+    }
+
+    private static final class Row implements ExcelImporter.SheetRow {
+
+        private final int rowNum;
+
+        private final List<Cell> cells = new ArrayList<>();
+
+        private Row(int rowNum) {
+            this.rowNum = rowNum;
+        }
+
+        private void set(int column, Cell cell) {
+            while (cells.size() <= column) {
+                cells.add(null);
+            }
+            cells.set(column, cell);
+        }
+
+        @Override
+        public int getRowNum() {
+            return rowNum;
+        }
+
+        @Override
+        public ExcelImporter.SheetCell getCell(int index) {
+            return index < cells.size() ? cells.get(index) : null;
+        }
+    }
+
+    /**
+     * Cell read from the sheet xml, converts the raw value as {@link org.apache.poi.xssf.usermodel.XSSFCell} does.
+     */
+    private static final class Cell implements ExcelImporter.SheetCell {
+
+        private final XLSXSheetReader reader;
+
+        /**
+         * Type attribute, s: shared string, inlineStr: inline string, str: formula string, b: boolean, e: error,
+         * n or null: number.
+         */
+        private String type;
+
+        private final String style;
+
+        private String value;
+
+        private String formula;
+
+        private Cell(XLSXSheetReader reader, String type, String style) {
+            this.reader = reader;
+            this.type = type == null ? "n" : type;
+            this.style = style;
+        }
+
+        @Override
+        public String getStringValue() {
+            if (formula == null && isText()) {
+                return getText();
+            }
+            String stringValue;
+            if ("b".equals(type)) {
+                stringValue = "1".equals(value) ? "TRUE" : "FALSE";
+            } else if (isText()) {
+                stringValue = getText();
+            } else if (value == null) {
+                // Blank cell or a formula without a cached value.
+                stringValue = formula == null ? "" : null;
+            } else {
+                stringValue = value;
+            }
+            // Cell is a string cell from now on, as the cell of a workbook would be.
+            type = "str";
+            value = stringValue;
+            formula = null;
+            return stringValue;
+        }
+
+        @Override
+        public double getNumericValue() {
+            if (!"n".equals(type)) {
+                throw new IllegalStateException("Cannot get a numeric value from a non numeric cell");
+            }
+            return value == null || value.isEmpty() ? 0.0 : Double.parseDouble(value);
+        }
+
+        @Override
+        public String toString() {
+            if (formula != null) {
+                return formula;
+            }
+            switch (type) {
+                case "b":
+                    return "1".equals(value) ? "TRUE" : "FALSE";
+                case "e":
+                    return value == null ? "" : value;
+                case "n":
+                    if (value == null) {
+                        return "";
+                    }
+                    double number = Double.parseDouble(value);
+                    if (isDateFormatted(number)) {
+                        return new SimpleDateFormat("dd-MMM-yyyy").format(DateUtil.getJavaDate(number, reader.date1904));
+                    }
+                    return number + "";
+                default:
+                    return getText();
+            }
+        }
+
+        private boolean isText() {
+            return "s".equals(type) || "inlineStr".equals(type) || "str".equals(type);
+        }
+
+        private String getText() {
+            if (value == null) {
+                return "";
+            }
+            return "s".equals(type) ? reader.sharedStrings.getEntryAt(Integer.parseInt(value)) : value;
+        }
+
+        private boolean isDateFormatted(double number) {
+            if (!DateUtil.isValidExcelDate(number) || reader.styles == null || reader.styles.getNumCellStyles() == 0) {
+                return false;
+            }
+            XSSFCellStyle cellStyle = reader.styles.getStyleAt(style == null ? 0 : Integer.parseInt(style));
+            return DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString());
+        }
+    }
+}
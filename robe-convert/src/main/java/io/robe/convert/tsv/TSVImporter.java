@@ -9,4 +9,12 @@ public class TSVImporter<T> extends CSVImporter<T> {
         super(dataClass, CsvPreference.TAB_PREFERENCE);
     }
 
+    /**
+     * Creates an importer which parses the stream in parallel, see
+     * {@link CSVImporter#CSVImporter(Class, CsvPreference, int, int, boolean)}.
+     */
+    public TSVImporter(Class dataClass, int parallelism, int chunkSize, boolean ordered) {
+        super(dataClass, CsvPreference.TAB_PREFERENCE, parallelism, chunkSize, ordered);
+    }
+
 }
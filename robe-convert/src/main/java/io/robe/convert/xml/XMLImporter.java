@@ -5,15 +5,16 @@ import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.dataformat.xml.XmlFactory;
 import io.robe.convert.common.Importer;
 import io.robe.convert.common.OnItemHandler;
+import io.robe.convert.common.RowCodec;
+import io.robe.convert.common.RowCodec.FieldCodec;
+import io.robe.convert.xml.parsers.IsParser;
 import io.robe.convert.xml.parsers.Parsers;
 
-import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Field;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 public class XMLImporter<T> extends Importer<T> {
@@ -53,7 +54,8 @@ public class XMLImporter<T> extends Importer<T> {
         JsonParser parser = factory.createParser(new InputStreamReader(inputStream, charSetName));
         JsonToken current;
 
-        Map<String, Field> fields = getFieldMap(getDataClass());
+        RowCodec codec = getRowCodec();
+        Map<FieldCodec, IsParser> parsers = new HashMap<>();
 
         current = parser.nextToken();
         while (current != JsonToken.START_OBJECT) {
@@ -68,12 +70,17 @@ public class XMLImporter<T> extends Importer<T> {
                 continue;
             }
             if (getDataClass().getSimpleName().equals(parser.getValueAsString())) {
-                T item = (T) getDataClass().newInstance();
+                T item = (T) codec.newInstance();
                 while (parser.nextToken() != JsonToken.END_OBJECT) {
                     if (parser.getValueAsString() == null || parser.getCurrentToken() == JsonToken.FIELD_NAME)
                         continue;
-                    Field field = fields.get(parser.getCurrentName());
-                    setField(parser, item, field);
+                    FieldCodec field = codec.getField(parser.getCurrentName());
+                    IsParser fieldParser = parsers.get(field);
+                    if (fieldParser == null) {
+                        fieldParser = Parsers.valueOf(field.getTypeName()).getParser();
+                        parsers.put(field, fieldParser);
+                    }
+                    field.set(item, fieldParser.parse(parser, field.getField()));
                 }
                 handler.onItem(item);
             }
@@ -82,18 +89,4 @@ public class XMLImporter<T> extends Importer<T> {
 
     }
 
-    private <T> void setField(JsonParser parser, T item, Field field) throws IllegalAccessException, IOException {
-        String fieldType = field.getType().getSimpleName().toUpperCase(Locale.ENGLISH);
-        if (field.getType().getGenericSuperclass() != null) {
-            if (field.getType().getGenericSuperclass().toString().startsWith("java.lang.Enum")) {
-                fieldType = "ENUM";
-            }
-        }
-        boolean acc = field.isAccessible();
-        field.setAccessible(true);
-        field.set(item, Parsers.valueOf(fieldType).getParser().parse(parser, field));
-        field.setAccessible(acc);
-    }
-
-
 }
@@ -0,0 +1,46 @@
+package io.robe.convert.common;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class BatchingOnItemHandlerTest {
+
+    private final List<List<Integer>> batches = new ArrayList<>();
+
+    private final OnBatchHandler<Integer> handler = new OnBatchHandler<Integer>() {
+        @Override
+        public void onBatch(List<Integer> items) {
+            batches.add(items);
+        }
+    };
+
+    @Test
+    public void flushBySize() throws Exception {
+        BatchingOnItemHandler<Integer> batching = new BatchingOnItemHandler<>(handler, 3);
+        for (int i = 0; i < 7; i++) {
+            batching.onItem(i);
+        }
+        assertEquals(2, batches.size());
+        batching.flush();
+        batching.flush();
+        assertEquals(3, batches.size());
+        assertEquals(3, batches.get(0).size());
+        assertEquals(1, batches.get(2).size());
+    }
+
+    @Test
+    public void flushByTime() throws Exception {
+        BatchingOnItemHandler<Integer> batching = new BatchingOnItemHandler<>(handler, 100, 10);
+        batching.onItem(0);
+        Thread.sleep(20);
+        batching.onItem(1);
+        assertEquals(1, batches.size());
+        assertEquals(2, batches.get(0).size());
+        batching.onItem(2);
+        assertEquals(1, batches.size());
+    }
+}
@@ -0,0 +1,49 @@
+package io.robe.convert.common;
+
+import io.robe.convert.SampleEnum;
+import io.robe.convert.SamplePojo;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RowCodecTest {
+
+    @Test
+    public void of() {
+        assertSame(RowCodec.of(SamplePojo.class), RowCodec.of(SamplePojo.class));
+    }
+
+    @Test
+    public void getFields() {
+        List<RowCodec.FieldCodec> fields = RowCodec.of(SamplePojo.class).getFields();
+        assertEquals(8, fields.size());
+        assertEquals("id", fields.get(0).getName());
+        assertEquals("name", fields.get(1).getName());
+        assertEquals("INT", fields.get(0).getTypeName());
+        assertEquals("Kullanıcı Id", fields.get(0).getTitle());
+        assertEquals("name", fields.get(1).getTitle());
+
+        RowCodec.FieldCodec sampleEnum = RowCodec.of(SamplePojo.class).getField("sampleEnum");
+        assertTrue(sampleEnum.isEnum());
+        assertEquals("ENUM", sampleEnum.getTypeName());
+        assertNull(RowCodec.of(SamplePojo.class).getField("missing"));
+    }
+
+    @Test
+    public void getAndSet() throws Exception {
+        RowCodec codec = RowCodec.of(SamplePojo.class);
+        SamplePojo item = (SamplePojo) codec.newInstance();
+
+        codec.getField("id").set(item, 42);
+        codec.getField("name").set(item, "Robe");
+        codec.getField("sampleEnum").set(item, SampleEnum.values()[0]);
+
+        assertEquals(42, item.getId());
+        assertEquals("Robe", item.getName());
+        assertEquals(SampleEnum.values()[0], item.getSampleEnum());
+        assertEquals(42, codec.getField("id").get(item));
+        assertEquals("Robe", codec.getField("name").get(item));
+    }
+}
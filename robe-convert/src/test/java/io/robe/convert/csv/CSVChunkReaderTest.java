@@ -0,0 +1,47 @@
+package io.robe.convert.csv;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class CSVChunkReaderTest {
+
+    private static List<String> split(String csv, int chunkSize) throws Exception {
+        CSVChunkReader reader = new CSVChunkReader(new StringReader(csv), '"', chunkSize);
+        List<String> chunks = new ArrayList<>();
+        String chunk;
+        while ((chunk = reader.next()) != null) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    @Test
+    public void lineEnds() throws Exception {
+        assertEquals(Arrays.asList("a,1\n", "b,2\n", "c,3"), split("a,1\nb,2\nc,3", 1));
+        assertEquals(Arrays.asList("a,1\r\n", "b,2\r\n", "c,3"), split("a,1\r\nb,2\r\nc,3", 1));
+        assertEquals(Arrays.asList("a,1\r", "b,2\r", "c,3"), split("a,1\rb,2\rc,3", 1));
+        assertEquals(Arrays.asList("a,1\rb,2\r", "c,3"), split("a,1\rb,2\rc,3", 5));
+    }
+
+    @Test
+    public void quotedLineEnds() throws Exception {
+        assertEquals(Arrays.asList("\"a\r\n\"\"b\"\"\rc\",1\r", "d,2"), split("\"a\r\n\"\"b\"\"\rc\",1\rd,2", 1));
+    }
+
+    @Test
+    public void lineFeedInNextBuffer() throws Exception {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 8191; i++) {
+            csv.append('x');
+        }
+        // \r is the last character of the buffer, \n is the first character of the next read.
+        csv.append("\r\ny\r\nz");
+        assertEquals(Arrays.asList(csv.substring(0, 8192), "y\r\n", "z"), split(csv.toString(), 1));
+    }
+}
@@ -3,8 +3,16 @@ package io.robe.convert.csv;
 
 import io.robe.convert.SamplePojo;
 import io.robe.convert.TestData;
+import io.robe.convert.common.OnBatchHandler;
+import io.robe.convert.common.OnItemHandler;
 import org.junit.Test;
+import org.supercsv.comment.CommentStartsWith;
+import org.supercsv.prefs.CsvPreference;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 
 public class CSVImporterTest {
@@ -39,4 +47,92 @@ public class CSVImporterTest {
         }
     }
 
+    @Test
+    public void testImportStreamParallel() throws Exception {
+
+        List<SamplePojo> data = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            SamplePojo ref = TestData.getData().get(i % TestData.getData().size());
+            // Quoted line ends and quotes must not split a record.
+            String name = i % 3 == 0 ? ref.getName() + "\n\"" + i + "\"" : ref.getName() + i;
+            data.add(new SamplePojo(i, name, ref.getSurname(), ref.getLongid(), ref.getDoubleid(), ref.getBig(), ref.getDate2(), ref.getSampleEnum()));
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new CSVExporter<SamplePojo>(SamplePojo.class).exportStream(os, data.iterator());
+
+        final List<SamplePojo> ordered = new ArrayList<>();
+        CSVImporter<SamplePojo> importer = new CSVImporter<>(SamplePojo.class, CsvPreference.STANDARD_PREFERENCE, 4, 64, true);
+        importer.importStream(new ByteArrayInputStream(os.toByteArray()), new OnItemHandler<SamplePojo>() {
+            @Override
+            public void onItem(SamplePojo item) {
+                ordered.add(item);
+            }
+        });
+        assert ordered.equals(data);
+
+        final List<SamplePojo> unordered = new ArrayList<>();
+        importer = new CSVImporter<>(SamplePojo.class, CsvPreference.STANDARD_PREFERENCE, 4, 64, false);
+        importer.importStream(new ByteArrayInputStream(os.toByteArray()), new OnItemHandler<SamplePojo>() {
+            @Override
+            public void onItem(SamplePojo item) {
+                unordered.add(item);
+            }
+        });
+        assert unordered.size() == data.size();
+        assert new HashSet<>(unordered).equals(new HashSet<>(data));
+    }
+
+    @Test
+    public void testImportStreamParallelWithCarriageReturns() throws Exception {
+
+        List<SamplePojo> data = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            SamplePojo ref = TestData.getData().get(i % TestData.getData().size());
+            String name = i % 3 == 0 ? ref.getName() + "\n" + i : ref.getName() + i;
+            data.add(new SamplePojo(i, name, ref.getSurname(), ref.getLongid(), ref.getDoubleid(), ref.getBig(), ref.getDate2(), ref.getSampleEnum()));
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        new CSVExporter<SamplePojo>(SamplePojo.class).exportStream(os, data.iterator());
+        // Old Mac line ends, records are separated only with \r.
+        byte[] csv = new String(os.toByteArray(), "UTF-8").replace("\r\n", "\r").getBytes("UTF-8");
+
+        final List<SamplePojo> items = new ArrayList<>();
+        CSVImporter<SamplePojo> importer = new CSVImporter<>(SamplePojo.class, CsvPreference.STANDARD_PREFERENCE, 4, 64, true);
+        importer.importStream(new ByteArrayInputStream(csv), new OnItemHandler<SamplePojo>() {
+            @Override
+            public void onItem(SamplePojo item) {
+                items.add(item);
+            }
+        });
+        assert items.equals(data);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelWithComments() throws Exception {
+        CsvPreference preference = new CsvPreference.Builder(CsvPreference.STANDARD_PREFERENCE)
+                .skipComments(new CommentStartsWith("#")).build();
+        new CSVImporter<>(SamplePojo.class, preference, 4, 64, true);
+    }
+
+    @Test
+    public void testImportStreamWithBatchHandler() throws Exception {
+
+        final List<List<SamplePojo>> batches = new ArrayList<>();
+        CSVImporter<SamplePojo> importer = new CSVImporter<>(SamplePojo.class);
+        importer.importStream(CSVImporterTest.class.getClassLoader().getResourceAsStream("sample.csv"), new OnBatchHandler<SamplePojo>() {
+            @Override
+            public void onBatch(List<SamplePojo> items) {
+                batches.add(items);
+            }
+        }, 2, 0);
+
+        assert batches.size() == 3;
+        assert batches.get(2).size() == 1;
+        List<SamplePojo> list = new ArrayList<>();
+        for (List<SamplePojo> batch : batches) {
+            list.addAll(batch);
+        }
+        assert list.equals(TestData.getData());
+    }
+
 }
@@ -51,4 +51,23 @@ public class XLSXExporterTest {
             assert importedPojo.equals(ref);
         }
     }
+
+    @Test
+    public void exportStreamWithWindow() throws Exception {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        XLSXExporter<SamplePojo> xlsxExporter = new XLSXExporter(SamplePojo.class, true, 1, true);
+        xlsxExporter.exportStream(os, TestData.getData().iterator());
+        os.flush();
+        os.close();
+
+        XLSXImporter<SamplePojo> xlsxImporter = new XLSXImporter(SamplePojo.class, true);
+        List<SamplePojo> samplePojos = xlsxImporter.importStream(new ByteArrayInputStream(os.toByteArray()));
+        assert samplePojos.size() == TestData.getData().size();
+        int index = 0;
+
+        for (SamplePojo importedPojo : samplePojos) {
+            SamplePojo ref = TestData.getData().get(index++);
+            assert importedPojo.equals(ref);
+        }
+    }
 }
@@ -2,8 +2,11 @@ package io.robe.convert.excel;
 
 import io.robe.convert.SamplePojo;
 import io.robe.convert.TestData;
+import io.robe.convert.common.OnItemHandler;
 import io.robe.convert.excel.importer.XLSXImporter;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
+import java.util.LinkedList;
 import java.util.List;
 
 public class XLSXImporterTest {
@@ -34,4 +37,20 @@ public class XLSXImporterTest {
             assert item.equals(ref);
         }
     }
+
+    @org.junit.Test
+    public void testImportStreamWithHandler() throws Exception {
+        XLSXImporter<SamplePojo> xlsImporter = new XLSXImporter(SamplePojo.class, true);
+        final List<SamplePojo> list = new LinkedList<>();
+        xlsImporter.importStream(XLSImporterTest.class.getClassLoader().getResourceAsStream("sampleWithTitle.xlsx"), new OnItemHandler<SamplePojo>() {
+            @Override
+            public void onItem(SamplePojo item) throws Exception {
+                list.add(item);
+            }
+        });
+        List<SamplePojo> workbookList = xlsImporter.importStream(null,
+                new XSSFWorkbook(XLSImporterTest.class.getClassLoader().getResourceAsStream("sampleWithTitle.xlsx")));
+        assert list.size() == TestData.getData().size();
+        assert list.equals(workbookList);
+    }
 }
@@ -0,0 +1,61 @@
+package io.robe.convert.excel.importer;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class XLSXSharedStringsTest {
+
+    private static final String TABLE = "<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" count=\"4\" uniqueCount=\"4\">"
+            + "<si><t>Robe</t></si>"
+            + "<si><r><t>Kullanıcı </t></r><r><rPr><b/></rPr><t>Id</t></r></si>"
+            + "<si><t>ロベ</t><rPh sb=\"0\" eb=\"2\"><t>ろべ</t></rPh></si>"
+            + "<si><t/></si>"
+            + "</sst>";
+
+    private static void assertEntries(XLSXSharedStrings strings) {
+        assertEquals(4, strings.size());
+        assertEquals("Robe", strings.getEntryAt(0));
+        assertEquals("Kullanıcı Id", strings.getEntryAt(1));
+        assertEquals("ロベ", strings.getEntryAt(2));
+        assertEquals("", strings.getEntryAt(3));
+        assertEquals("Robe", strings.getEntryAt(0));
+    }
+
+    @Test
+    public void inMemory() throws Exception {
+        try (XLSXSharedStrings strings = new XLSXSharedStrings(XLSXSharedStrings.DEFAULT_MEMORY_LIMIT)) {
+            strings.read(new ByteArrayInputStream(TABLE.getBytes(StandardCharsets.UTF_8)));
+            assertFalse(strings.isOnDisk());
+            assertEntries(strings);
+        }
+    }
+
+    @Test
+    public void onDisk() throws Exception {
+        try (XLSXSharedStrings strings = new XLSXSharedStrings(5)) {
+            strings.read(new ByteArrayInputStream(TABLE.getBytes(StandardCharsets.UTF_8)));
+            assertTrue(strings.isOnDisk());
+            assertEntries(strings);
+        }
+    }
+
+    @Test
+    public void samePackageEntries() throws Exception {
+        OPCPackage pkg = OPCPackage.open(XLSXSharedStringsTest.class.getClassLoader().getResourceAsStream("sample.xlsx"));
+        try (XLSXSharedStrings strings = XLSXSharedStrings.read(pkg)) {
+            ReadOnlySharedStringsTable expected = new ReadOnlySharedStringsTable(pkg);
+            assertEquals(expected.getUniqueCount(), strings.size());
+            for (int i = 0; i < strings.size(); i++) {
+                assertEquals(expected.getEntryAt(i), strings.getEntryAt(i));
+            }
+        } finally {
+            pkg.revert();
+        }
+    }
+}
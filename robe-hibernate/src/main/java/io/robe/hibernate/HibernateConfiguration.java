@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 import io.dropwizard.Configuration;
 import io.dropwizard.db.DataSourceFactory;
 import io.dropwizard.db.DatabaseConfiguration;
+import io.robe.hibernate.search.SearchIndexConfiguration;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -16,9 +17,17 @@ public class HibernateConfiguration implements DatabaseConfiguration {
     @JsonProperty("database")
     private DataSourceFactory database = new DataSourceFactory();
 
+    @Valid
+    @JsonProperty("searchIndex")
+    private SearchIndexConfiguration searchIndex;
+
     @Override
     public DataSourceFactory getDataSourceFactory(Configuration configuration) {
         return database;
     }
 
+    public SearchIndexConfiguration getSearchIndex() {
+        return searchIndex;
+    }
+
 }
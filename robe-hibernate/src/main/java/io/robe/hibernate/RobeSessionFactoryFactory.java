@@ -1,19 +1,87 @@
 package io.robe.hibernate;
 
+import io.dropwizard.db.PooledDataSourceFactory;
+import io.dropwizard.hibernate.HibernateBundle;
 import io.dropwizard.hibernate.SessionFactoryFactory;
+import io.dropwizard.setup.Environment;
+import io.robe.hibernate.cache.RobeRegionFactory;
 import io.robe.hibernate.conf.RobeHibernateNamingStrategy;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.cfg.NamingStrategy;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.hibernate.service.ServiceRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.persistence.SharedCacheMode;
+import java.util.List;
+import java.util.Map;
+
 public class RobeSessionFactoryFactory extends SessionFactoryFactory {
     private static final Logger LOGGER = LoggerFactory.getLogger(RobeSessionFactoryFactory.class);
 
+    /**
+     * Comma separated entity class names to cache without {@link javax.persistence.Cacheable}.
+     */
+    public static final String CACHE_ENTITIES = "hibernate.cache.entities";
+
+    @Override
+    public SessionFactory build(HibernateBundle<?> bundle, Environment environment, PooledDataSourceFactory dbConfig,
+                                List<Class<?>> entities, String name) {
+        determineRegionFactory(dbConfig.getProperties());
+        SessionFactory sessionFactory = super.build(bundle, environment, dbConfig, entities, name);
+        RegionFactory regionFactory = ((SessionFactoryImplementor) sessionFactory).getSettings().getRegionFactory();
+        if (regionFactory instanceof RobeRegionFactory) {
+            ((RobeRegionFactory) regionFactory).registerMetrics(environment.metrics());
+        }
+        return sessionFactory;
+    }
+
     @Override
     protected void configure(Configuration configuration, ServiceRegistry registry) {
         determineNamingStrategy(configuration);
+        determineCacheEntities(configuration);
+    }
+
+    /**
+     * Second level cache is used if hibernate.cache.use_second_level_cache is true or a region factory is given.
+     * {@link RobeRegionFactory} is used if no other region factory is given.
+     * Region factory is read from the service registry, so it must be set before the session factory is built.
+     */
+    private void determineRegionFactory(Map<String, String> properties) {
+        String enabled = properties.get(AvailableSettings.USE_SECOND_LEVEL_CACHE);
+        if (properties.get(AvailableSettings.CACHE_REGION_FACTORY) == null) {
+            if (!"true".equals(enabled)) {
+                // Hibernate enables it by default and fails for the @Cacheable entities without a region factory.
+                properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false");
+                return;
+            }
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, RobeRegionFactory.class.getName());
+        } else if ("false".equals(enabled)) {
+            return;
+        }
+        if (properties.get("javax.persistence.sharedCache.mode") == null) {
+            // Only the entities with @Cacheable.
+            properties.put("javax.persistence.sharedCache.mode", SharedCacheMode.ENABLE_SELECTIVE.name());
+        }
+        LOGGER.info("Second Level Cache: " + properties.get(AvailableSettings.CACHE_REGION_FACTORY));
+    }
+
+    private void determineCacheEntities(Configuration configuration) {
+        String entities = configuration.getProperty(CACHE_ENTITIES);
+        if (entities == null || "false".equals(configuration.getProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE))) {
+            return;
+        }
+        String usage = configuration.getProperty(AvailableSettings.DEFAULT_CACHE_CONCURRENCY_STRATEGY);
+        for (String entity : entities.split(",")) {
+            if (!entity.trim().isEmpty()) {
+                configuration.setCacheConcurrencyStrategy(entity.trim(), usage == null ? "read-write" : usage);
+                LOGGER.info("Cached Entity: " + entity.trim());
+            }
+        }
     }
 
     private void determineNamingStrategy(Configuration configuration) {
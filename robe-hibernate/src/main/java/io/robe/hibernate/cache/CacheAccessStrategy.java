@@ -0,0 +1,334 @@
+package io.robe.hibernate.cache;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.CollectionRegionAccessStrategy;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.NaturalIdRegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Access strategy of the entity, collection and natural id regions.
+ * <ul>
+ * <li>READ_ONLY: entries are cached at load and never updated.</li>
+ * <li>NONSTRICT_READ_WRITE: entries are evicted at update and delete, a load running at the same time may put the
+ * old state back until the entry expires.</li>
+ * <li>READ_WRITE: entries are evicted and locked until the transaction completes. Loads started before the
+ * completion can't put their state, so the cache never keeps the old state. Locks are kept apart from the values,
+ * so they are never evicted by the size or the expiration of the region.</li>
+ * </ul>
+ * Values are cached only from loads, inserted and updated entities are cached at their next load.
+ */
+abstract class CacheAccessStrategy {
+
+    private static final SoftLock REGION_LOCK = new SoftLock() {
+    };
+
+    private final CacheRegion region;
+
+    private final AccessType accessType;
+
+    private final AtomicInteger regionLocks = new AtomicInteger();
+
+    private volatile long regionUnlocked;
+
+    private final ConcurrentMap<Object, Lock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Latest unlock time of the purged locks. Loads started before it can't put items without a lock.
+     */
+    private final AtomicLong purgedUnlocked = new AtomicLong();
+
+    private volatile long nextPurge;
+
+    CacheAccessStrategy(CacheRegion region, AccessType accessType) {
+        if (accessType == AccessType.TRANSACTIONAL) {
+            throw new CacheException("Transactional access is not supported, region: " + region.getName());
+        }
+        this.region = region;
+        this.accessType = accessType;
+    }
+
+    public Object get(Object key, long txTimestamp) throws CacheException {
+        return region.count(region.getCache().getIfPresent(key));
+    }
+
+    public boolean putFromLoad(Object key, Object value, long txTimestamp, Object version) throws CacheException {
+        return putFromLoad(key, value, txTimestamp, version, false);
+    }
+
+    public boolean putFromLoad(Object key, Object value, long txTimestamp, Object version, boolean minimalPutOverride)
+            throws CacheException {
+        if (regionLocks.get() > 0 || txTimestamp <= regionUnlocked) {
+            return false;
+        }
+        Lock lock = locks.get(key);
+        // Transaction may have read the state before the locking transaction committed.
+        if (lock == null ? txTimestamp <= purgedUnlocked.get() : !lock.isWriteable(txTimestamp, region.nextTimestamp())) {
+            return false;
+        }
+        ConcurrentMap<Object, Object> map = region.getCache().asMap();
+        if (minimalPutOverride) {
+            if (map.putIfAbsent(key, value) != null) {
+                return false;
+            }
+        } else {
+            map.put(key, value);
+        }
+        if (locks.get(key) != lock) {
+            // Locked while putting, the value may be older than the locking transaction.
+            map.remove(key, value);
+            return false;
+        }
+        return true;
+    }
+
+    public SoftLock lockItem(Object key, Object version) throws CacheException {
+        if (accessType != AccessType.READ_WRITE) {
+            return null;
+        }
+        long timeout = region.nextTimestamp() + region.getTimeout();
+        while (true) {
+            Lock current = locks.get(key);
+            Lock lock = current == null ? new Lock(1, timeout, purgedUnlocked.get()) : current.lock(timeout);
+            if (current == null ? locks.putIfAbsent(key, lock) == null : locks.replace(key, current, lock)) {
+                region.getCache().invalidate(key);
+                return lock;
+            }
+        }
+    }
+
+    public void unlockItem(Object key, SoftLock softLock) throws CacheException {
+        if (accessType != AccessType.READ_WRITE) {
+            region.getCache().invalidate(key);
+            return;
+        }
+        long now = region.nextTimestamp();
+        while (true) {
+            Lock current = locks.get(key);
+            Lock lock = current == null ? new Lock(0, 0, now) : current.unlock(now);
+            if (current == null ? locks.putIfAbsent(key, lock) == null : locks.replace(key, current, lock)) {
+                break;
+            }
+        }
+        purge(now);
+    }
+
+    /**
+     * Removes the locks which are unlocked or timed out for longer than the lock timeout, at most once in a timeout.
+     *
+     * @param now current timestamp
+     */
+    private void purge(long now) {
+        if (now < nextPurge) {
+            return;
+        }
+        nextPurge = now + region.getTimeout();
+        for (Map.Entry<Object, Lock> entry : locks.entrySet()) {
+            Lock lock = entry.getValue();
+            if (lock.isExpired(now, region.getTimeout())) {
+                // Raised before the removal, so a load always sees the lock or its unlock time.
+                long purged;
+                do {
+                    purged = purgedUnlocked.get();
+                } while (purged < lock.unlocked && !purgedUnlocked.compareAndSet(purged, lock.unlocked));
+                locks.remove(entry.getKey(), lock);
+            }
+        }
+    }
+
+    /**
+     * @return number of the locks kept for the items
+     */
+    int getLockCount() {
+        return locks.size();
+    }
+
+    public SoftLock lockRegion() throws CacheException {
+        regionLocks.incrementAndGet();
+        region.getCache().invalidateAll();
+        return REGION_LOCK;
+    }
+
+    public void unlockRegion(SoftLock lock) throws CacheException {
+        regionUnlocked = region.nextTimestamp();
+        regionLocks.decrementAndGet();
+        region.getCache().invalidateAll();
+    }
+
+    public void remove(Object key) throws CacheException {
+        if (accessType != AccessType.READ_WRITE) {
+            region.getCache().invalidate(key);
+        }
+    }
+
+    public void removeAll() throws CacheException {
+        region.getCache().invalidateAll();
+    }
+
+    public void evict(Object key) throws CacheException {
+        region.getCache().invalidate(key);
+    }
+
+    public void evictAll() throws CacheException {
+        region.getCache().invalidateAll();
+    }
+
+    /**
+     * Called before the update of an entity or a natural id.
+     *
+     * @param key key of the item
+     * @return false, updated values are not cached
+     */
+    boolean beforeUpdate(Object key) {
+        if (accessType == AccessType.READ_ONLY) {
+            throw new UnsupportedOperationException("Can't update read only entry of region: " + region.getName());
+        }
+        if (accessType == AccessType.NONSTRICT_READ_WRITE) {
+            region.getCache().invalidate(key);
+        }
+        return false;
+    }
+
+    /**
+     * Called after the commit of the update of an entity or a natural id.
+     *
+     * @param key  key of the item
+     * @param lock lock of the item
+     * @return false, updated values are not cached
+     */
+    boolean afterUpdate(Object key, SoftLock lock) {
+        unlockItem(key, lock);
+        return false;
+    }
+
+    /**
+     * Soft lock of an item. Keeps the item locked until all locking transactions complete and blocks the loads
+     * started before the last unlock.
+     */
+    private static final class Lock implements SoftLock {
+
+        private final int count;
+
+        private final long timeout;
+
+        private final long unlocked;
+
+        private Lock(int count, long timeout, long unlocked) {
+            this.count = count;
+            this.timeout = timeout;
+            this.unlocked = unlocked;
+        }
+
+        private Lock lock(long timeout) {
+            return new Lock(count + 1, timeout, unlocked);
+        }
+
+        private Lock unlock(long timestamp) {
+            return new Lock(Math.max(count - 1, 0), timeout, timestamp);
+        }
+
+        private boolean isWriteable(long txTimestamp, long now) {
+            return (count == 0 || timeout < now) && txTimestamp > unlocked;
+        }
+
+        private boolean isExpired(long now, long period) {
+            return count == 0 ? unlocked + period < now : timeout + period < now;
+        }
+    }
+
+    static final class Entity extends CacheAccessStrategy implements EntityRegionAccessStrategy {
+
+        private final CacheRegion.Entity region;
+
+        Entity(CacheRegion.Entity region, AccessType accessType) {
+            super(region, accessType);
+            this.region = region;
+        }
+
+        @Override
+        public EntityRegion getRegion() {
+            return region;
+        }
+
+        @Override
+        public boolean insert(Object key, Object value, Object version) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean afterInsert(Object key, Object value, Object version) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean update(Object key, Object value, Object currentVersion, Object previousVersion) throws CacheException {
+            return beforeUpdate(key);
+        }
+
+        @Override
+        public boolean afterUpdate(Object key, Object value, Object currentVersion, Object previousVersion, SoftLock lock)
+                throws CacheException {
+            return afterUpdate(key, lock);
+        }
+    }
+
+    static final class Collection extends CacheAccessStrategy implements CollectionRegionAccessStrategy {
+
+        private final CacheRegion.Collection region;
+
+        Collection(CacheRegion.Collection region, AccessType accessType) {
+            super(region, accessType);
+            this.region = region;
+        }
+
+        @Override
+        public CollectionRegion getRegion() {
+            return region;
+        }
+    }
+
+    static final class NaturalId extends CacheAccessStrategy implements NaturalIdRegionAccessStrategy {
+
+        private final CacheRegion.NaturalId region;
+
+        NaturalId(CacheRegion.NaturalId region, AccessType accessType) {
+            super(region, accessType);
+            this.region = region;
+        }
+
+        @Override
+        public NaturalIdRegion getRegion() {
+            return region;
+        }
+
+        @Override
+        public boolean insert(Object key, Object value) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean afterInsert(Object key, Object value) throws CacheException {
+            return false;
+        }
+
+        @Override
+        public boolean update(Object key, Object value) throws CacheException {
+            return beforeUpdate(key);
+        }
+
+        @Override
+        public boolean afterUpdate(Object key, Object value, SoftLock lock) throws CacheException {
+            return afterUpdate(key, lock);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package io.robe.hibernate.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheStats;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.cache.spi.TransactionalDataRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.CollectionRegionAccessStrategy;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.NaturalIdRegionAccessStrategy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Region of {@link RobeRegionFactory} over a Guava cache. Hits and misses are counted for the reads of Hibernate.
+ */
+abstract class CacheRegion implements org.hibernate.cache.spi.Region {
+
+    private final RobeRegionFactory factory;
+
+    private final String name;
+
+    private final Cache<Object, Object> cache;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    CacheRegion(RobeRegionFactory factory, String name, Cache<Object, Object> cache) {
+        this.factory = factory;
+        this.name = name;
+        this.cache = cache;
+    }
+
+    Cache<Object, Object> getCache() {
+        return cache;
+    }
+
+    /**
+     * Counts the read as a hit or miss.
+     *
+     * @param value value read for Hibernate, null for a miss
+     * @return the value
+     */
+    Object count(Object value) {
+        if (value == null) {
+            misses.incrementAndGet();
+        } else {
+            hits.incrementAndGet();
+        }
+        return value;
+    }
+
+    /**
+     * @return hits and misses of Hibernate reads and the evictions of the cache
+     */
+    CacheStats getStats() {
+        return new CacheStats(hits.get(), misses.get(), 0, 0, 0, cache.stats().evictionCount());
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public void destroy() throws CacheException {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public long getSizeInMemory() {
+        return -1;
+    }
+
+    @Override
+    public long getElementCountInMemory() {
+        return cache.size();
+    }
+
+    @Override
+    public long getElementCountOnDisk() {
+        return 0;
+    }
+
+    @Override
+    public Map toMap() {
+        return new HashMap<>(cache.asMap());
+    }
+
+    @Override
+    public long nextTimestamp() {
+        return factory.nextTimestamp();
+    }
+
+    @Override
+    public int getTimeout() {
+        return RobeRegionFactory.LOCK_TIMEOUT;
+    }
+
+    /**
+     * Region of the query results and the update timestamps of the tables.
+     */
+    static final class General extends CacheRegion implements QueryResultsRegion, TimestampsRegion {
+
+        General(RobeRegionFactory factory, String name, Cache<Object, Object> cache) {
+            super(factory, name, cache);
+        }
+
+        @Override
+        public Object get(Object key) throws CacheException {
+            return count(getCache().getIfPresent(key));
+        }
+
+        @Override
+        public void put(Object key, Object value) throws CacheException {
+            getCache().put(key, value);
+        }
+
+        @Override
+        public void evict(Object key) throws CacheException {
+            getCache().invalidate(key);
+        }
+
+        @Override
+        public void evictAll() throws CacheException {
+            getCache().invalidateAll();
+        }
+    }
+
+    /**
+     * Region of entities, collections or natural ids.
+     */
+    abstract static class Transactional extends CacheRegion implements TransactionalDataRegion {
+
+        private final CacheDataDescription metadata;
+
+        Transactional(RobeRegionFactory factory, String name, Cache<Object, Object> cache, CacheDataDescription metadata) {
+            super(factory, name, cache);
+            this.metadata = metadata;
+        }
+
+        @Override
+        public boolean isTransactionAware() {
+            return false;
+        }
+
+        @Override
+        public CacheDataDescription getCacheDataDescription() {
+            return metadata;
+        }
+    }
+
+    static final class Entity extends Transactional implements EntityRegion {
+
+        Entity(RobeRegionFactory factory, String name, Cache<Object, Object> cache, CacheDataDescription metadata) {
+            super(factory, name, cache, metadata);
+        }
+
+        @Override
+        public EntityRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+            return new CacheAccessStrategy.Entity(this, accessType);
+        }
+    }
+
+    static final class Collection extends Transactional implements CollectionRegion {
+
+        Collection(RobeRegionFactory factory, String name, Cache<Object, Object> cache, CacheDataDescription metadata) {
+            super(factory, name, cache, metadata);
+        }
+
+        @Override
+        public CollectionRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+            return new CacheAccessStrategy.Collection(this, accessType);
+        }
+    }
+
+    static final class NaturalId extends Transactional implements NaturalIdRegion {
+
+        NaturalId(RobeRegionFactory factory, String name, Cache<Object, Object> cache, CacheDataDescription metadata) {
+            super(factory, name, cache, metadata);
+        }
+
+        @Override
+        public NaturalIdRegionAccessStrategy buildAccessStrategy(AccessType accessType) throws CacheException {
+            return new CacheAccessStrategy.NaturalId(this, accessType);
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package io.robe.hibernate.cache;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.CacheDataDescription;
+import org.hibernate.cache.spi.CollectionRegion;
+import org.hibernate.cache.spi.EntityRegion;
+import org.hibernate.cache.spi.NaturalIdRegion;
+import org.hibernate.cache.spi.QueryResultsRegion;
+import org.hibernate.cache.spi.RegionFactory;
+import org.hibernate.cache.spi.TimestampsRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cfg.Settings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In process second level cache of Hibernate. Every region is a size bounded Guava cache, entries are kept in the
+ * heap of the node so it fits single node deployments or rarely changing reference data.
+ * Reads following properties of the hibernate configuration.
+ * <ul>
+ * <li>hibernate.cache.maxEntries: max entries of a region, default 10000</li>
+ * <li>hibernate.cache.maxEntries.[region]: max entries of the region, ex. hibernate.cache.maxEntries.io.robe.admin.hibernate.entity.Menu</li>
+ * <li>hibernate.cache.expireAfterWrite: seconds to keep an entry, 0 keeps until evicted, default 0</li>
+ * </ul>
+ */
+public class RobeRegionFactory implements RegionFactory {
+    private static final Logger LOGGER = LoggerFactory.getLogger(RobeRegionFactory.class);
+
+    public static final String MAX_ENTRIES = "hibernate.cache.maxEntries";
+    public static final String EXPIRE_AFTER_WRITE = "hibernate.cache.expireAfterWrite";
+
+    private static final long DEFAULT_MAX_ENTRIES = 10000;
+
+    /**
+     * Timestamps are milliseconds shifted by 12 bits, so 4096 unique timestamps are given in a millisecond.
+     */
+    private static final int TIMESTAMP_SHIFT = 12;
+
+    /**
+     * Timeout of the locks of the items, 60 seconds.
+     */
+    static final int LOCK_TIMEOUT = 60000 << TIMESTAMP_SHIFT;
+
+    private final AtomicLong lastTimestamp = new AtomicLong();
+
+    private final Map<String, CacheRegion> regions = new ConcurrentHashMap<>();
+
+    private Properties properties;
+
+    private MetricRegistry metrics;
+
+    @Override
+    public void start(Settings settings, Properties properties) throws CacheException {
+        this.properties = properties;
+        LOGGER.info("Second level cache started with max entries: " + properties.getProperty(MAX_ENTRIES, String.valueOf(DEFAULT_MAX_ENTRIES))
+                + ", expire after write: " + properties.getProperty(EXPIRE_AFTER_WRITE, "0"));
+    }
+
+    @Override
+    public void stop() {
+        for (CacheRegion region : regions.values()) {
+            region.destroy();
+        }
+        regions.clear();
+    }
+
+    @Override
+    public boolean isMinimalPutsEnabledByDefault() {
+        return false;
+    }
+
+    @Override
+    public AccessType getDefaultAccessType() {
+        return AccessType.READ_WRITE;
+    }
+
+    @Override
+    public long nextTimestamp() {
+        while (true) {
+            long last = lastTimestamp.get();
+            long next = Math.max(System.currentTimeMillis() << TIMESTAMP_SHIFT, last + 1);
+            if (lastTimestamp.compareAndSet(last, next)) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public EntityRegion buildEntityRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new CacheRegion.Entity(this, regionName, createCache(regionName, true), metadata));
+    }
+
+    @Override
+    public NaturalIdRegion buildNaturalIdRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new CacheRegion.NaturalId(this, regionName, createCache(regionName, true), metadata));
+    }
+
+    @Override
+    public CollectionRegion buildCollectionRegion(String regionName, Properties properties, CacheDataDescription metadata) throws CacheException {
+        return register(new CacheRegion.Collection(this, regionName, createCache(regionName, true), metadata));
+    }
+
+    @Override
+    public QueryResultsRegion buildQueryResultsRegion(String regionName, Properties properties) throws CacheException {
+        return register(new CacheRegion.General(this, regionName, createCache(regionName, true)));
+    }
+
+    @Override
+    public TimestampsRegion buildTimestampsRegion(String regionName, Properties properties) throws CacheException {
+        // Query results are stale if the update time of a table is lost, so timestamps are never evicted.
+        return register(new CacheRegion.General(this, regionName, createCache(regionName, false)));
+    }
+
+    /**
+     * Registers the statistics of the regions to the registry. Regions created later are registered as they are
+     * built.
+     *
+     * @param metrics registry to add the gauges
+     */
+    public synchronized void registerMetrics(MetricRegistry metrics) {
+        this.metrics = metrics;
+        for (CacheRegion region : regions.values()) {
+            registerMetrics(region);
+        }
+    }
+
+    private synchronized <R extends CacheRegion> R register(R region) {
+        regions.put(region.getName(), region);
+        if (metrics != null) {
+            registerMetrics(region);
+        }
+        return region;
+    }
+
+    private void registerMetrics(final CacheRegion region) {
+        String prefix = MetricRegistry.name(RobeRegionFactory.class, region.getName());
+        metrics.remove(MetricRegistry.name(prefix, "hits"));
+        metrics.register(MetricRegistry.name(prefix, "hits"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return region.getStats().hitCount();
+            }
+        });
+        metrics.remove(MetricRegistry.name(prefix, "misses"));
+        metrics.register(MetricRegistry.name(prefix, "misses"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return region.getStats().missCount();
+            }
+        });
+        metrics.remove(MetricRegistry.name(prefix, "hitRatio"));
+        metrics.register(MetricRegistry.name(prefix, "hitRatio"), new Gauge<Double>() {
+            @Override
+            public Double getValue() {
+                return region.getStats().hitRate();
+            }
+        });
+        metrics.remove(MetricRegistry.name(prefix, "evictions"));
+        metrics.register(MetricRegistry.name(prefix, "evictions"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return region.getStats().evictionCount();
+            }
+        });
+        metrics.remove(MetricRegistry.name(prefix, "size"));
+        metrics.register(MetricRegistry.name(prefix, "size"), new Gauge<Long>() {
+            @Override
+            public Long getValue() {
+                return region.getElementCountInMemory();
+            }
+        });
+    }
+
+    private Cache<Object, Object> createCache(String regionName, boolean bounded) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+        if (bounded) {
+            builder.maximumSize(Long.parseLong(properties.getProperty(MAX_ENTRIES + '.' + regionName,
+                    properties.getProperty(MAX_ENTRIES, String.valueOf(DEFAULT_MAX_ENTRIES)))));
+            long expireAfterWrite = Long.parseLong(properties.getProperty(EXPIRE_AFTER_WRITE, "0"));
+            if (expireAfterWrite > 0) {
+                builder.expireAfterWrite(expireAfterWrite, TimeUnit.SECONDS);
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Statistics of a region. Hits and misses are the reads of Hibernate, evictions are the entries removed for the
+     * size or the expiration.
+     *
+     * @param regionName name of the region
+     * @return statistics or null if there is no region with the name
+     */
+    public CacheStats getStats(String regionName) {
+        CacheRegion region = regions.get(regionName);
+        return region == null ? null : region.getStats();
+    }
+}
@@ -1,30 +1,54 @@
 package io.robe.hibernate.dao;
 
+import com.google.common.base.Function;
 import com.google.common.base.Optional;
 import com.google.common.base.Preconditions;
 import io.dropwizard.hibernate.AbstractDAO;
 import io.robe.common.service.headers.ResponseHeadersUtil;
+import io.robe.common.service.search.SearchCursor;
 import io.robe.common.service.search.SearchFrom;
-import io.robe.common.service.search.SearchIgnore;
 import io.robe.common.service.search.SearchableEnum;
+import io.robe.common.service.search.model.CountMode;
 import io.robe.common.service.search.model.SearchModel;
 import io.robe.common.utils.StringsOperations;
 import io.robe.hibernate.entity.BaseEntity;
+import io.robe.hibernate.search.SearchIndex;
+import io.robe.hibernate.search.SearchIndexBundle;
+import org.hibernate.CacheMode;
 import org.hibernate.Criteria;
+import org.hibernate.NullPrecedence;
+import org.hibernate.Query;
+import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.hibernate.criterion.*;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.QueryParameters;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.internal.CriteriaImpl;
+import org.hibernate.loader.criteria.CriteriaLoader;
+import org.hibernate.loader.criteria.CriteriaQueryTranslator;
+import org.hibernate.metadata.ClassMetadata;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.OuterJoinLoadable;
 import org.hibernate.transform.Transformers;
-import org.hibernate.type.StringType;
-import org.hibernate.type.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.inject.Inject;
-import javax.persistence.Column;
-import javax.persistence.Transient;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
 import java.io.Serializable;
 import java.lang.reflect.Field;
-import java.math.BigDecimal;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Basic Dao Class which limits {@link io.dropwizard.hibernate.AbstractDAO} to take
@@ -34,8 +58,17 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
 
-    private static final ConcurrentHashMap<String, Field[]> fieldCache = new ConcurrentHashMap<>();
+    private static final Logger LOGGER = LoggerFactory.getLogger(BaseDao.class);
 
+    /**
+     * Default JDBC fetch size of the scrolled results.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 500;
+
+    /**
+     * Number of entities written between the flushes of the bulk operations if hibernate.jdbc.batch_size is not set.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 50;
 
     /**
      * Constructor with session factory injection by guice
@@ -47,64 +80,6 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
         super(sessionFactory);
     }
 
-    private static String[] parseFilterExp(String filter) {
-        char[] chars = filter.toCharArray();
-        char[] name = new char[chars.length];
-        char[] op = new char[2];
-        char[] value = new char[chars.length];
-        int nIndex = 0;
-        int oIndex = 0;
-        int vIndex = 0;
-        short part = 0;
-        for (int i = 0; i < chars.length; i++) {
-            switch (part) {
-                case 0://Filling name
-                    switch (chars[i]) {
-                        case '=':
-                        case '!':
-                        case '<':
-                        case '>':
-                        case '~':
-                        case '|':
-                            //Jump to operation
-                            op[oIndex++] = chars[i];
-                            part = 1;
-                            break;
-                        default:
-                            name[nIndex++] = chars[i];
-                    }
-                    break;
-                case 1://Filling op
-                    switch (chars[i]) {
-                        case '=':
-                            op[oIndex++] = chars[i];
-                            break;
-                        default:
-                            //Jump to value
-                            value[vIndex++] = chars[i];
-                            part = 2;
-                    }
-                    break;
-                case 2://Filling value
-                    value[vIndex++] = chars[i];
-                    break;
-            }
-        }
-
-        return new String[]{
-                new String(name, 0, nIndex),
-                new String(op, 0, oIndex),
-                new String(value, 0, vIndex)};
-    }
-
-    private static List<Field> getAllFields(List<Field> fields, Class<?> type) {
-        fields.addAll(Arrays.asList(type.getDeclaredFields()));
-        if (type.getSuperclass() != null) {
-            fields = getAllFields(fields, type.getSuperclass());
-        }
-        return fields;
-    }
-
     /**
      * Returns modified list of the entities regarding to the search model.
      * {@inheritDoc}
@@ -112,66 +87,219 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
      * @return List of entities.
      */
     public List<T> findAll(SearchModel search) {
-        List<T> list = buildCriteria(search).list();
-        search.setLimit(null);
-        search.setOffset(null);
-        long totalCount = (Long) buildCriteria(search).setProjection(Projections.rowCount()).uniqueResult();
-        search.setTotalCount(totalCount);
-        ResponseHeadersUtil.addTotalCount(search);
-        return list;
+        return listAndCount(search, buildCriteria(search));
     }
 
     /**
-     * Returns modified list of the entities regarding to the search model.
+     * Returns modified list of the entities regarding to the search model as maps with the {@link SearchFrom} targets.
+     * Targets are read with one query for every {@link SearchFrom} field of the page.
      * {@inheritDoc}
      *
      * @return List of entities.
      */
+    @SuppressWarnings("unchecked")
     public List<T> findAllWithSearchFrom(SearchModel search) {
-        List<T> list = addSearchFromProjection(buildCriteria(search)).list();
-        search.setLimit(null);
-        search.setOffset(null);
-        long totalCount = (Long) buildCriteria(search).setProjection(Projections.rowCount()).uniqueResult();
-        search.setTotalCount(totalCount);
-        ResponseHeadersUtil.addTotalCount(search);
+        SearchFromProjection projection = EntityMetadata.of(getEntityClass()).getSearchFromProjection();
+        Criteria criteria = buildCriteria(search);
+        // Cursor of the next page is read from the sort fields of the last row.
+        Collection<String> sortFields = search.getAfter() == null ?
+                Collections.<String>emptySet() : getKeysetOrders(search).keySet();
+        criteria.setProjection(projection.toProjection(sortFields));
+        criteria.setResultTransformer(Transformers.ALIAS_TO_ENTITY_MAP);
+        List<T> list = listAndCount(search, criteria);
+        projection.fill((List<Map<String, Object>>) (List) list, currentSession());
         return list;
     }
 
-    public Criteria addSearchFromProjection(Criteria criteria) {
-        Field[] fields = getCachedFields(getEntityClass());
-        ProjectionList projectionList = Projections.projectionList();
-        for (Field field : fields) {
-            field.setAccessible(true);
-            SearchFrom searchFrom = field.getAnnotation(SearchFrom.class);
-            if (searchFrom != null) {
-                for (String target : searchFrom.target()) {
-                    String alias = field.getName() + StringsOperations.capitalizeFirstChar(target);
-                    StringBuilder sqlBuilder = new StringBuilder("(select ");
-                    if (searchFrom.localId().isEmpty())
-                        sqlBuilder.append(target);
-                    else
-                        sqlBuilder.append("group_concat(").append(target).append(")");
-
-                    sqlBuilder.append(" from ").append(searchFrom.entity().getSimpleName());
-                    if (searchFrom.localId().isEmpty()) {
-                        sqlBuilder.append(" where ").append(searchFrom.id()).append('=').append(field.getName()).append(") as ").append(alias);
-                    } else {
-                        sqlBuilder.append(" where ").append(searchFrom.id()).append('=').append("this_.").append(searchFrom.localId()).append(") as ").append(alias);
-                    }
-                    projectionList.add(Projections.alias(Projections.sqlProjection(sqlBuilder.toString(),
-                            new String[]{alias}, new Type[]{new StringType()}), alias));
-                    if (searchFrom.localId().isEmpty()) {
-                        projectionList.add(Projections.property(field.getName()), field.getName());
-                    }
-                }
+    /**
+     * Returns an iterator over all entities. Entities are read from a forward only cursor and evicted from the session
+     * after they are consumed, so result sets larger than the memory can be iterated.
+     * Can be given directly to an exporter.
+     *
+     * @return iterator of the entities, must be consumed or closed while the session is open.
+     */
+    public ScrollIterator<T> scroll() {
+        return scroll(new SearchModel());
+    }
+
+    /**
+     * Returns an iterator over the results of the search model with {@link #DEFAULT_FETCH_SIZE}.
+     *
+     * @param search model
+     * @return iterator of the results, must be consumed or closed while the session is open.
+     * @see #scroll(SearchModel, int)
+     */
+    public ScrollIterator<T> scroll(SearchModel search) {
+        return scroll(search, DEFAULT_FETCH_SIZE);
+    }
+
+    /**
+     * Returns an iterator over the results of the search model. Filters, sorting, paging and fields are applied
+     * same as {@link #findAll(SearchModel)}, no count is calculated. Results are read only and skip the second level
+     * cache.
+     * MySQL driver streams rows only with {@link Integer#MIN_VALUE} as fetch size.
+     *
+     * @param search    model
+     * @param fetchSize JDBC fetch size
+     * @return iterator of the results, must be consumed or closed while the session is open.
+     */
+    public ScrollIterator<T> scroll(SearchModel search, int fetchSize) {
+        Criteria criteria = buildCriteria(search)
+                .setFetchSize(fetchSize)
+                .setReadOnly(true)
+                .setCacheMode(CacheMode.IGNORE);
+        return new ScrollIterator<>(currentSession(), criteria.scroll(ScrollMode.FORWARD_ONLY));
+    }
+
+    /**
+     * Lists the page and fills the count of the search model regarding to its count mode.
+     * If the page is not full the total count is known without a count query.
+     * Fills the cursor of the next page for keyset paginated searches.
+     *
+     * @param search   model
+     * @param criteria criteria of the page
+     * @return page
+     */
+    @SuppressWarnings("unchecked")
+    private List<T> listAndCount(SearchModel search, Criteria criteria) {
+        Integer limit = search.getLimit();
+        boolean keyset = search.getAfter() != null;
+        int offset = keyset || search.getOffset() == null ? 0 : search.getOffset();
+        List<T> list;
+        if (search.getCountMode() == CountMode.NONE && limit != null) {
+            // Fetch one more row to find out if there is a next page.
+            list = criteria.setMaxResults(limit + 1).list();
+            search.setHasMore(list.size() > limit);
+            if (list.size() > limit) {
+                list = new ArrayList<>(list.subList(0, limit));
+            }
+        } else {
+            list = criteria.list();
+            if (search.getCountMode() == CountMode.NONE) {
+                search.setHasMore(false);
+            } else if ((limit == null || list.size() < limit) && (!list.isEmpty() || offset == 0)
+                    && (!keyset || search.getAfter().isEmpty())) {
+                search.setCountMode(CountMode.EXACT);
+                search.setTotalCount(offset + list.size());
+                search.setHasMore(false);
             } else {
-                if (field.getAnnotation(Column.class) != null)
-                    projectionList.add(Projections.property(field.getName()), field.getName());
+                count(search);
+            }
+        }
+        if (keyset && limit != null && !list.isEmpty() && list.size() == limit
+                && (search.getCountMode() != CountMode.NONE || search.getHasMore())) {
+            search.setNextCursor(createCursor(search, list.get(list.size() - 1)));
+        }
+        ResponseHeadersUtil.addCount(search);
+        ResponseHeadersUtil.addNextCursor(search);
+        return list;
+    }
+
+    /**
+     * Fills the total count of the search model regarding to its count mode.
+     * Sets the applied mode back to the model if the requested one falls back.
+     *
+     * @param search model
+     */
+    private void count(SearchModel search) {
+        if (search.getCountMode() == CountMode.ESTIMATED) {
+            Long estimate = hasCriteria(search) ? null : estimateCount();
+            // Small tables are counted with a capped count, estimates are rough for them.
+            if (estimate != null && estimate >= search.getCountLimit()) {
+                search.setTotalCount(estimate);
+                return;
             }
+            search.setCountMode(CountMode.CAPPED);
+        }
+        if (search.getCountMode() == CountMode.CAPPED) {
+            // Cap never stays behind the requested page.
+            int cap = search.getCountLimit();
+            if (search.getLimit() != null) {
+                cap = Math.max(cap, (search.getOffset() == null ? 0 : search.getOffset()) + search.getLimit());
+            }
+            int count = cappedCount(buildCountCriteria(search), cap + 1);
+            search.setHasMore(count > cap);
+            search.setTotalCount(Math.min(count, cap));
+        } else {
+            search.setTotalCount((Long) buildCountCriteria(search).setProjection(Projections.rowCount()).uniqueResult());
+        }
+    }
+
+    /**
+     * Counts the rows of the criteria up to the given max. MySQL, H2 and PostgreSQL count a limited sub select
+     * in the database, other databases fetch the ids up to the max.
+     *
+     * @param criteria criteria without projection
+     * @param max      max count
+     * @return row count, not more than max
+     */
+    private int cappedCount(Criteria criteria, int max) {
+        criteria.setProjection(Projections.id());
+        SessionImplementor session = (SessionImplementor) currentSession();
+        SessionFactoryImplementor factory = session.getFactory();
+        Dialect dialect = factory.getDialect();
+        if (!(dialect instanceof MySQLDialect || dialect instanceof H2Dialect || dialect instanceof PostgreSQL81Dialect)
+                || session.getLoadQueryInfluencers().hasEnabledFilters()) {
+            return criteria.setMaxResults(max).list().size();
+        }
+        CriteriaImpl impl = (CriteriaImpl) criteria;
+        String entityName = factory.getImplementors(impl.getEntityOrClassName())[0];
+        CriteriaLoader loader = new CriteriaLoader((OuterJoinLoadable) factory.getEntityPersister(entityName),
+                factory, impl, entityName, session.getLoadQueryInfluencers());
+        QueryParameters parameters = new CriteriaQueryTranslator(factory, impl, entityName,
+                CriteriaQueryTranslator.ROOT_SQL_ALIAS).getQueryParameters();
+        SQLQuery query = currentSession().createSQLQuery(
+                "select count(*) from (" + loader.getSQLString() + " limit " + max + ") capped");
+        Object[] values = parameters.getPositionalParameterValues();
+        for (int i = 0; i < values.length; i++) {
+            query.setParameter(i, values[i], parameters.getPositionalParameterTypes()[i]);
+        }
+        return ((Number) query.uniqueResult()).intValue();
+    }
 
-            field.setAccessible(false);
+    private static boolean hasCriteria(SearchModel search) {
+        return (search.getQ() != null && !search.getQ().isEmpty()) || search.getFilter() != null;
+    }
+
+    /**
+     * Reads the row count of the entity table from database statistics.
+     * Supported for MySQL (information_schema) and PostgreSQL (pg_class).
+     *
+     * @return estimated row count or null if the database has no statistics for the table.
+     */
+    private Long estimateCount() {
+        SessionFactoryImplementor factory = (SessionFactoryImplementor) currentSession().getSessionFactory();
+        ClassMetadata metadata = factory.getClassMetadata(getEntityClass());
+        if (!(metadata instanceof AbstractEntityPersister)) {
+            return null;
+        }
+        String sql;
+        Dialect dialect = factory.getDialect();
+        if (dialect instanceof MySQLDialect) {
+            sql = "select table_rows from information_schema.tables where table_schema = database() and table_name = :table";
+        } else if (dialect instanceof PostgreSQL81Dialect) {
+            sql = "select cast(reltuples as bigint) from pg_class where relname = :table";
+        } else {
+            return null;
         }
-        criteria.setProjection(projectionList);
+        String table = ((AbstractEntityPersister) metadata).getTableName();
+        table = table.substring(table.lastIndexOf('.') + 1).replace("`", "").replace("\"", "");
+        Number estimate = (Number) currentSession().createSQLQuery(sql).setParameter("table", table).uniqueResult();
+        return estimate == null || estimate.longValue() < 0 ? null : estimate.longValue();
+    }
+
+    /**
+     * Sets the projection of the entity with the {@link SearchFrom} targets as sub selects.
+     * Sub selects are created once for every entity, fields with {@link SearchFrom#localId()} are supported on
+     * MySQL, H2 and PostgreSQL.
+     *
+     * @param criteria criteria of the entity
+     * @return criteria with the projection
+     */
+    public Criteria addSearchFromProjection(Criteria criteria) {
+        SessionFactoryImplementor factory = (SessionFactoryImplementor) currentSession().getSessionFactory();
+        criteria.setProjection(EntityMetadata.of(getEntityClass()).getSearchFromProjection()
+                .toSqlProjection(factory, getEntityClass()));
         criteria.setResultTransformer(Transformers.ALIAS_TO_ENTITY_MAP);
 
         return criteria;
@@ -228,6 +356,38 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
         return persist(entity);
     }
 
+    /**
+     * Runs the action after the transaction of the current session commits, ex. to invalidate caches only when the
+     * change is visible to the other sessions. Action is not run if the transaction rolls back and runs immediately
+     * if there is no active transaction. Failures of the action are logged, the transaction is already committed.
+     *
+     * @param action action to run
+     */
+    public void afterCommit(final Runnable action) {
+        Transaction transaction = currentSession().getTransaction();
+        if (transaction == null || !transaction.isActive()) {
+            action.run();
+            return;
+        }
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("After commit action failed.", e);
+                }
+            }
+        });
+    }
+
     /**
      * Delete a record for the given entity instance.
      *
@@ -239,6 +399,295 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
         return entity;
     }
 
+    /**
+     * Creates records for the entities in the current session, see {@link #createAll(Collection, BulkMode)}.
+     *
+     * @param entities entities to record
+     * @return the entities, detached from the session
+     */
+    public Collection<T> createAll(Collection<T> entities) {
+        return createAll(entities, BulkMode.SESSION);
+    }
+
+    /**
+     * Creates records for the entities. Session is flushed at every hibernate.jdbc.batch_size entities so the
+     * inserts are sent as JDBC batches, and the written entities are evicted to keep the session small.
+     *
+     * @param entities entities to record
+     * @param mode     session to write with
+     * @return the entities, detached from the session
+     */
+    public Collection<T> createAll(Collection<T> entities, BulkMode mode) {
+        if (mode == BulkMode.STATELESS) {
+            StatelessSession session = openStatelessSession();
+            try {
+                for (T entity : entities) {
+                    session.insert(entity);
+                }
+                executeBatch(session);
+            } finally {
+                session.close();
+            }
+            return entities;
+        }
+        int batchSize = getBatchSize();
+        List<T> batch = new ArrayList<>(batchSize);
+        for (T entity : entities) {
+            currentSession().save(entity);
+            batch.add(entity);
+            if (batch.size() == batchSize) {
+                flushAndEvict(batch);
+            }
+        }
+        flushAndEvict(batch);
+        return entities;
+    }
+
+    /**
+     * Updates the records of the entities in the current session, see {@link #updateAll(Collection, BulkMode)}.
+     *
+     * @param entities entities to record
+     * @return the entities, detached from the session
+     */
+    public Collection<T> updateAll(Collection<T> entities) {
+        return updateAll(entities, BulkMode.SESSION);
+    }
+
+    /**
+     * Updates the records of the entities. Session is flushed at every hibernate.jdbc.batch_size entities and the
+     * written entities are evicted. Versioned updates are sent as JDBC batches only if
+     * hibernate.jdbc.batch_versioned_data is true.
+     *
+     * @param entities entities to record
+     * @param mode     session to write with
+     * @return the entities, detached from the session
+     */
+    public Collection<T> updateAll(Collection<T> entities, BulkMode mode) {
+        if (mode == BulkMode.STATELESS) {
+            StatelessSession session = openStatelessSession();
+            try {
+                for (T entity : entities) {
+                    session.update(entity);
+                }
+                executeBatch(session);
+            } finally {
+                session.close();
+            }
+            return entities;
+        }
+        int batchSize = getBatchSize();
+        List<T> batch = new ArrayList<>(batchSize);
+        for (T entity : entities) {
+            currentSession().saveOrUpdate(entity);
+            batch.add(entity);
+            if (batch.size() == batchSize) {
+                flushAndEvict(batch);
+            }
+        }
+        flushAndEvict(batch);
+        return entities;
+    }
+
+    /**
+     * Deletes the records of the entities in the current session, see {@link #deleteAll(Collection, BulkMode)}.
+     *
+     * @param entities entities to delete
+     */
+    public void deleteAll(Collection<T> entities) {
+        deleteAll(entities, BulkMode.SESSION);
+    }
+
+    /**
+     * Deletes the records of the entities. Session is flushed at every hibernate.jdbc.batch_size entities.
+     *
+     * @param entities entities to delete
+     * @param mode     session to delete with
+     */
+    public void deleteAll(Collection<T> entities, BulkMode mode) {
+        if (mode == BulkMode.STATELESS) {
+            StatelessSession session = openStatelessSession();
+            try {
+                for (T entity : entities) {
+                    session.delete(entity);
+                }
+                executeBatch(session);
+            } finally {
+                session.close();
+            }
+            return;
+        }
+        int batchSize = getBatchSize();
+        int count = 0;
+        for (T entity : entities) {
+            currentSession().delete(entity);
+            if (++count % batchSize == 0) {
+                currentSession().flush();
+            }
+        }
+        currentSession().flush();
+    }
+
+    /**
+     * Deletes the records matching all given property values with a single HQL delete, entities are not loaded.
+     * Collection values are matched with an in restriction.
+     * Listeners do not run for the deleted rows and the second level cache region of the entity is cleared.
+     *
+     * @param properties values of the properties by name
+     * @return number of the deleted records
+     */
+    public int deleteAllBy(Map<String, ?> properties) {
+        Preconditions.checkArgument(!properties.isEmpty(), "Give at least one property to delete by.");
+        StringBuilder hql = new StringBuilder("delete from ").append(getEntityClass().getName()).append(" where ");
+        int i = 0;
+        for (Map.Entry<String, ?> property : properties.entrySet()) {
+            if (i > 0) {
+                hql.append(" and ");
+            }
+            hql.append(property.getKey()).append(property.getValue() instanceof Collection ? " in (:p" + i + ")" : " = :p" + i);
+            i++;
+        }
+        Query query = currentSession().createQuery(hql.toString());
+        i = 0;
+        for (Map.Entry<String, ?> property : properties.entrySet()) {
+            if (property.getValue() instanceof Collection) {
+                query.setParameterList("p" + i++, (Collection) property.getValue());
+            } else {
+                query.setParameter("p" + i++, property.getValue());
+            }
+        }
+        return query.executeUpdate();
+    }
+
+    /**
+     * Lists the records which have one of the given values with queries of {@link SearchFromProjection#MAX_IN_VALUES}
+     * values, so long value lists stay in the in list limits of the databases.
+     *
+     * @param propertyName name of the property
+     * @param values       values of the property
+     * @return matching records
+     */
+    public List<T> findAllIn(String propertyName, Collection<?> values) {
+        List<?> valueList = new ArrayList<>(values);
+        List<T> result = new ArrayList<>();
+        for (int start = 0; start < valueList.size(); start += SearchFromProjection.MAX_IN_VALUES) {
+            Criteria criteria = currentSession().createCriteria(getEntityClass());
+            criteria.add(Restrictions.in(propertyName,
+                    valueList.subList(start, Math.min(start + SearchFromProjection.MAX_IN_VALUES, valueList.size()))));
+            result.addAll(list(criteria));
+        }
+        return result;
+    }
+
+    /**
+     * Deletes the records with the given oids with HQL deletes of {@link SearchFromProjection#MAX_IN_VALUES} oids.
+     * Listeners do not run for the deleted rows and the second level cache region of the entity is cleared.
+     *
+     * @param oids oids of the records
+     * @return number of the deleted records
+     */
+    public int deleteAllByOid(Collection<String> oids) {
+        List<String> oidList = new ArrayList<>(oids);
+        int count = 0;
+        for (int start = 0; start < oidList.size(); start += SearchFromProjection.MAX_IN_VALUES) {
+            count += deleteAllBy(Collections.singletonMap("oid",
+                    oidList.subList(start, Math.min(start + SearchFromProjection.MAX_IN_VALUES, oidList.size()))));
+        }
+        return count;
+    }
+
+    /**
+     * Replaces the existing records with the desired ones, matching them by the given key.
+     * <ul>
+     * <li>Existing records without a desired match are deleted with {@link #deleteAllByOid(Collection)}.</li>
+     * <li>Desired entities with a match take the oid and version of the match and are merged, so only the changed
+     * records are updated.</li>
+     * <li>Other desired entities are inserted with {@link #createAll(Collection)}.</li>
+     * </ul>
+     * Saving a set which mostly stays the same costs one delete, the changed updates and batched inserts instead of
+     * deleting and inserting every record.
+     *
+     * @param existing records to replace, loaded in the current session, ex. children of a parent
+     * @param desired  new state of the records
+     * @param key      key to match the records, ex. a property other than the parent
+     * @return the saved entities
+     */
+    public List<T> replaceAll(Collection<T> existing, Collection<T> desired, Function<? super T, ?> key) {
+        // Last one of the duplicate keys is kept, others are deleted.
+        Map<Object, T> existingByKey = new HashMap<>(existing.size() * 2);
+        for (T entity : existing) {
+            existingByKey.put(key.apply(entity), entity);
+        }
+        Map<Object, T> desiredByKey = new LinkedHashMap<>(desired.size() * 2);
+        for (T entity : desired) {
+            desiredByKey.put(key.apply(entity), entity);
+        }
+        List<T> removed = new ArrayList<>();
+        List<String> removedOids = new ArrayList<>();
+        for (T entity : existing) {
+            Object entityKey = key.apply(entity);
+            if (existingByKey.get(entityKey) != entity || !desiredByKey.containsKey(entityKey)) {
+                removed.add(entity);
+                removedOids.add(entity.getOid());
+            }
+        }
+        deleteAllByOid(removedOids);
+        for (T entity : removed) {
+            currentSession().evict(entity);
+        }
+
+        List<T> saved = new ArrayList<>(desiredByKey.size());
+        List<T> created = new ArrayList<>();
+        for (Map.Entry<Object, T> entry : desiredByKey.entrySet()) {
+            T match = existingByKey.get(entry.getKey());
+            T entity = entry.getValue();
+            if (match == null) {
+                created.add(entity);
+                saved.add(entity);
+            } else if (match == entity) {
+                saved.add(entity);
+            } else {
+                entity.setOid(match.getOid());
+                entity.setLastUpdated(match.getLastUpdated());
+                saved.add(merge(entity));
+            }
+        }
+        createAll(created);
+        return saved;
+    }
+
+    /**
+     * @return hibernate.jdbc.batch_size of the session factory or {@link #DEFAULT_BATCH_SIZE} if it is not set
+     */
+    protected int getBatchSize() {
+        int batchSize = ((SessionFactoryImplementor) currentSession().getSessionFactory()).getSettings().getJdbcBatchSize();
+        return batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    private void flushAndEvict(List<T> batch) {
+        currentSession().flush();
+        for (T entity : batch) {
+            currentSession().evict(entity);
+        }
+        batch.clear();
+    }
+
+    /**
+     * Opens a stateless session on the connection of the current session. Pending changes of the current session
+     * are flushed first to keep the order of the statements.
+     */
+    private StatelessSession openStatelessSession() {
+        currentSession().flush();
+        return currentSession().getSessionFactory().openStatelessSession(
+                ((SessionImplementor) currentSession()).connection());
+    }
+
+    /**
+     * Executes the statements left in the JDBC batch, stateless sessions discard them at close.
+     */
+    private static void executeBatch(StatelessSession session) {
+        ((SessionImplementor) session).getTransactionCoordinator().getJdbcCoordinator().executeBatch();
+    }
+
     /**
      * Flush the session.
      */
@@ -269,38 +718,74 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
     }
 
 
+    /**
+     * Returns the fields of the entity as a map with the {@link SearchFrom} targets and {@link SearchableEnum} texts.
+     *
+     * @param entity entity to read
+     * @return map of the field values
+     * @see #getWithSearchFromData(List)
+     */
     public Object getWithSearchFromData(T entity) throws IllegalAccessException {
-        Field[] fields = getCachedFields(getEntityClass());
-        HashMap<String, Object> output = new HashMap<>(fields.length + 5);
-        for (Field field : fields) {
-            field.setAccessible(true);
-            output.put(field.getName(), field.get(entity));
-            if (field.get(entity) == null)
-                continue;
-            SearchFrom searchFrom = field.getAnnotation(SearchFrom.class);
-            if (searchFrom != null) {
-                for (String target : searchFrom.target()) {
-                    Object result = getSearchFromData(searchFrom, field.get(entity));
-                    output.put(
-                            (field.getName() + StringsOperations.capitalizeFirstChar(target)),
-                            result);
+        return getWithSearchFromData(Collections.singletonList(entity)).get(0);
+    }
+
+    /**
+     * Returns the fields of the entities as maps with the {@link SearchFrom} targets and {@link SearchableEnum} texts.
+     * Targets are read with one query for every {@link SearchFrom} annotation, not for every entity.
+     * Target values are put with the field name and the capitalized target name, ex. roleName for role field.
+     *
+     * @param entities entities to read
+     * @return maps of the field values in the order of the entities
+     */
+    public List<Map<String, Object>> getWithSearchFromData(List<T> entities) throws IllegalAccessException {
+        FieldMetadata[] fields = EntityMetadata.of(getEntityClass()).getFieldMetadata();
+        List<Map<String, Object>> outputs = new ArrayList<>(entities.size());
+        Map<SearchFrom, Set<Object>> ids = new HashMap<>();
+        for (T entity : entities) {
+            HashMap<String, Object> output = new HashMap<>(fields.length + 5);
+            for (FieldMetadata field : fields) {
+                Object value = field.getField().get(entity);
+                output.put(field.getName(), value);
+                if (value == null)
+                    continue;
+                SearchFrom searchFrom = field.getSearchFrom();
+                if (searchFrom != null) {
+                    Set<Object> fromIds = ids.get(searchFrom);
+                    if (fromIds == null) {
+                        fromIds = new HashSet<>();
+                        ids.put(searchFrom, fromIds);
+                    }
+                    fromIds.add(value);
+                } else if (field.isSearchableEnum()) {
+                    SearchableEnum enumField = (SearchableEnum) value;
+                    output.put(field.getName() + "Text", enumField.getText());
                 }
-            } else if (field.getType().isEnum() && SearchableEnum.class.isAssignableFrom(field.getType())) {
-                SearchableEnum enumField = (SearchableEnum) field.get(entity);
-                output.put(field.getName() + "Text", enumField.getText());
             }
-            field.setAccessible(false);
+            outputs.add(output);
         }
-        return output;
-    }
+        if (ids.isEmpty())
+            return outputs;
 
-    private Object getSearchFromData(SearchFrom from, Object id) {
-        Criteria criteria = currentSession().createCriteria(from.entity());
-        criteria.add(Restrictions.eq(from.id(), id));
-        for (String target : from.target()) {
-            criteria.setProjection(Projections.property(target));
+        Map<SearchFrom, Map<Object, List<Object[]>>> targets = new HashMap<>(ids.size() * 2);
+        for (Map.Entry<SearchFrom, Set<Object>> entry : ids.entrySet()) {
+            targets.put(entry.getKey(), SearchFromProjection.fetch(currentSession(), entry.getKey(), entry.getValue()));
         }
-        return criteria.uniqueResult();
+        for (Map<String, Object> output : outputs) {
+            for (FieldMetadata field : fields) {
+                SearchFrom searchFrom = field.getSearchFrom();
+                Object value = output.get(field.getName());
+                if (searchFrom == null || value == null)
+                    continue;
+                List<Object[]> rows = targets.get(searchFrom).get(value);
+                Object[] row = rows == null ? null : rows.get(0);
+                String[] targetNames = searchFrom.target();
+                for (int i = 0; i < targetNames.length; i++) {
+                    output.put(field.getName() + StringsOperations.capitalizeFirstChar(targetNames[i]),
+                            row == null ? null : row[i]);
+                }
+            }
+        }
+        return outputs;
     }
 
     /**
@@ -324,22 +809,42 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
     protected final Criteria buildCriteria(SearchModel search, Class<? extends BaseEntity> clazz) {
 
         Criteria criteria = this.currentSession().createCriteria(clazz);
+        Map<String, Boolean> keysetOrders = search.getAfter() == null ? null : getKeysetOrders(search);
 
         if (search.getFields() != null && search.getFields().length != 0) {
             ProjectionList projectionList = Projections.projectionList();
             for (String fieldName : search.getFields()) {
                 projectionList.add(Projections.property(fieldName), fieldName);
             }
+            if (keysetOrders != null) {
+                // Cursor of the next page is read from the sort fields of the last row.
+                List<String> fields = Arrays.asList(search.getFields());
+                for (String fieldName : keysetOrders.keySet()) {
+                    if (!fields.contains(fieldName)) {
+                        projectionList.add(Projections.property(fieldName), fieldName);
+                    }
+                }
+            }
             criteria.setProjection(projectionList);
             criteria.setResultTransformer(Transformers.ALIAS_TO_ENTITY_MAP);
         }
-        if (search.getOffset() != null) {
+        if (search.getOffset() != null && keysetOrders == null) {
             criteria.setFirstResult(search.getOffset());
         }
         if (search.getLimit() != null) {
             criteria.setMaxResults(search.getLimit());
         }
-        if (search.getSort() != null && search.getSort().length != 0) {
+        if (keysetOrders != null) {
+            for (Map.Entry<String, Boolean> order : keysetOrders.entrySet()) {
+                // Null precedence is fixed, keyset restrictions expect nulls first in ascending order on every database.
+                criteria.addOrder(order.getValue() ?
+                        Order.asc(order.getKey()).nulls(NullPrecedence.FIRST) :
+                        Order.desc(order.getKey()).nulls(NullPrecedence.LAST));
+            }
+            if (!search.getAfter().isEmpty()) {
+                criteria.add(addKeysetCriterias(keysetOrders, readCursor(search.getAfter(), keysetOrders.keySet(), clazz)));
+            }
+        } else if (search.getSort() != null && search.getSort().length != 0) {
             for (String fieldName : search.getSort()) {
                 if (fieldName.startsWith(" ") || fieldName.startsWith("+")) {
                     criteria.addOrder(Order.asc(fieldName.substring(1)));
@@ -349,13 +854,56 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
             }
 
         }
+        addSearchCriterias(criteria, search, clazz);
+
+        return criteria;
+    }
+
+    /**
+     * Creates a criteria for counting the results of the given search model. Paging, sorting and field projections
+     * of the search model are not applied.
+     *
+     * @param search model
+     * @return criteria without paging
+     */
+    protected final Criteria buildCountCriteria(SearchModel search) {
+        Criteria criteria = this.currentSession().createCriteria(this.getEntityClass());
+        addSearchCriterias(criteria, search, this.getEntityClass());
+        return criteria;
+    }
+
+    /**
+     * Adds the full text search (q) and filter restrictions of the search model.
+     * Entities in the {@link SearchIndex} are searched from the index instead of like restrictions.
+     *
+     * @param criteria to add restrictions
+     * @param search   model
+     * @param clazz    of extends {@link BaseEntity}
+     */
+    private void addSearchCriterias(Criteria criteria, SearchModel search, Class<? extends BaseEntity> clazz) {
         if (search.getQ() != null && !search.getQ().isEmpty()) {
-            Field[] fields = getCachedFields(clazz);
+            FieldMetadata[] fields = EntityMetadata.of(clazz).getFieldMetadata();
             List<Criterion> fieldLikes = new ArrayList<>(fields.length);
-            for (Field field : fields) {
-                SearchFrom searchFrom = field.getAnnotation(SearchFrom.class);
+            SearchIndex index = SearchIndexBundle.getIndex();
+            Set<String> indexedOids = index != null && index.isIndexed(clazz) ? index.search(clazz, search.getQ()) : null;
+            // Searches matching too many entities for the index are made with like restrictions.
+            boolean indexed = indexedOids != null;
+            if (indexed) {
+                List<String> oids = new ArrayList<>(indexedOids);
+                // Split to stay in the in list limits of the databases.
+                for (int start = 0; start < oids.size(); start += SearchFromProjection.MAX_IN_VALUES) {
+                    fieldLikes.add(Restrictions.in("oid",
+                            oids.subList(start, Math.min(start + SearchFromProjection.MAX_IN_VALUES, oids.size()))));
+                }
+            }
+            for (FieldMetadata field : fields) {
+                SearchFrom searchFrom = field.getSearchFrom();
                 if (searchFrom != null) {
-                    List<String> result = addRemoteMatchCriterias(searchFrom, search.getQ());
+                    Collection<String> result = null;
+                    if (index != null && index.isIndexed(searchFrom.entity()) && "oid".equals(searchFrom.id()))
+                        result = index.search(searchFrom.entity(), search.getQ());
+                    if (result == null)
+                        result = addRemoteMatchCriterias(searchFrom, search.getQ());
                     for (String id : result) {
                         if (searchFrom.localId().isEmpty())
                             fieldLikes.add(Restrictions.eq(field.getName(), id));
@@ -363,16 +911,14 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
                             fieldLikes.add(Restrictions.eq(searchFrom.localId(), id));
 
                     }
-                } else if (field.getType().equals(String.class)) {
-                    if (field.getAnnotation(SearchIgnore.class) == null) {
-                        if (field.isEnumConstant()) {
-                            fieldLikes.add(Restrictions.ilike(field.getName(), search.getQ(), MatchMode.ANYWHERE));
-
-                        } else {
-                            fieldLikes.add(Restrictions.ilike(field.getName(), search.getQ(), MatchMode.ANYWHERE));
-                        }
+                } else if (indexed) {
+                    // Strings and enums are in the index.
+                    continue;
+                } else if (field.getValueType() == FieldMetadata.ValueType.STRING) {
+                    if (!field.isSearchIgnore()) {
+                        fieldLikes.add(Restrictions.ilike(field.getName(), search.getQ(), MatchMode.ANYWHERE));
                     }
-                } else if (field.getType().isEnum() && SearchableEnum.class.isAssignableFrom(field.getType())) {
+                } else if (field.isSearchableEnum()) {
                     SearchableEnum[] enums = (SearchableEnum[]) field.getType().getEnumConstants();
 
                     for (SearchableEnum anEnum : enums) {
@@ -382,26 +928,170 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
                     }
                 }
             }
-            criteria.add(Restrictions.or(fieldLikes.toArray(new Criterion[]{})));
+            if (indexed && fieldLikes.isEmpty()) {
+                // An empty disjunction matches all rows.
+                criteria.add(Restrictions.sqlRestriction("1=0"));
+            } else {
+                criteria.add(Restrictions.or(fieldLikes.toArray(new Criterion[]{})));
+            }
         }
         if (search.getFilter() != null) {
-            Field[] fields = getCachedFields(clazz);
-            criteria.add(addFilterCriterias(fields, search.getFilter()));
+            criteria.add(EntityMetadata.of(clazz).getFilterPlan(search.getFilter()).toCriterion(currentSession()));
         }
+    }
 
+    /**
+     * Returns the orders of a keyset paginated search as field name, ascending pairs.
+     * Oid is added as the last order to have a unique position for every row.
+     *
+     * @param search model
+     * @return orders in the sort order
+     */
+    private static Map<String, Boolean> getKeysetOrders(SearchModel search) {
+        Map<String, Boolean> orders = new LinkedHashMap<>();
+        if (search.getSort() != null) {
+            for (String fieldName : search.getSort()) {
+                if (fieldName.length() < 2 || orders.containsKey(fieldName.substring(1))) {
+                    continue;
+                }
+                if (fieldName.startsWith(" ") || fieldName.startsWith("+")) {
+                    orders.put(fieldName.substring(1), true);
+                } else if (fieldName.startsWith("-")) {
+                    orders.put(fieldName.substring(1), false);
+                }
+            }
+        }
+        if (!orders.containsKey("oid")) {
+            orders.put("oid", true);
+        }
+        return orders;
+    }
 
-        return criteria;
+    /**
+     * Creates the range restriction of the rows after the cursor values.
+     * (a, b, oid) > (va, vb, void) is written as a > va or (a = va and b > vb) or (a = va and b = vb and oid > void)
+     * Nulls are sorted first in ascending and last in descending order, see the keyset orders of the criteria.
+     *
+     * @param orders orders of the search
+     * @param values values of the cursor
+     * @return restriction
+     */
+    private static Criterion addKeysetCriterias(Map<String, Boolean> orders, Object[] values) {
+        Disjunction after = Restrictions.disjunction();
+        List<Criterion> equals = new ArrayList<>(orders.size());
+        int i = 0;
+        for (Map.Entry<String, Boolean> order : orders.entrySet()) {
+            String name = order.getKey();
+            Object value = values[i++];
+            Criterion next;
+            if (order.getValue()) {
+                next = value == null ? Restrictions.isNotNull(name) : Restrictions.gt(name, value);
+            } else {
+                next = value == null ? null : Restrictions.or(Restrictions.lt(name, value), Restrictions.isNull(name));
+            }
+            if (next != null) {
+                Conjunction term = Restrictions.conjunction();
+                for (Criterion equal : equals) {
+                    term.add(equal);
+                }
+                after.add(term.add(next));
+            }
+            equals.add(value == null ? Restrictions.isNull(name) : Restrictions.eq(name, value));
+        }
+        Map.Entry<String, Boolean> first = orders.entrySet().iterator().next();
+        if (first.getValue() && values[0] != null) {
+            // Plain range on the first field lets the database use its index.
+            return Restrictions.and(Restrictions.ge(first.getKey(), values[0]), after);
+        }
+        return after;
+    }
+
+    /**
+     * Creates the cursor of the rows after the given row.
+     *
+     * @param search model
+     * @param row    last row of the page, an entity or a map of the selected fields
+     * @return cursor
+     */
+    private String createCursor(SearchModel search, Object row) {
+        Set<String> names = getKeysetOrders(search).keySet();
+        EntityMetadata metadata = EntityMetadata.of(getEntityClass());
+        List<String> values = new ArrayList<>(names.size());
+        for (String name : names) {
+            Object value;
+            if (row instanceof Map) {
+                value = ((Map) row).get(name);
+            } else {
+                try {
+                    value = getField(metadata, name).getField().get(row);
+                } catch (IllegalAccessException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            if (value == null) {
+                values.add(null);
+            } else if (value instanceof Date) {
+                values.add(String.valueOf(((Date) value).getTime()));
+            } else if (value instanceof Enum) {
+                values.add(((Enum) value).name());
+            } else {
+                values.add(value.toString());
+            }
+        }
+        return SearchCursor.encode(values);
+    }
+
+    /**
+     * Reads the values of the cursor with the types of the sort fields.
+     *
+     * @param cursor cursor from the request
+     * @param names  sort field names
+     * @param clazz  of extends {@link BaseEntity}
+     * @return values in the sort order
+     * @throws WebApplicationException with 400 status if the cursor is not valid
+     */
+    private Object[] readCursor(String cursor, Set<String> names, Class<?> clazz) {
+        try {
+            List<String> values = SearchCursor.decode(cursor);
+            if (values.size() != names.size()) {
+                throw new IllegalArgumentException("Cursor does not match the sort fields: " + cursor);
+            }
+            EntityMetadata metadata = EntityMetadata.of(clazz);
+            Object[] result = new Object[values.size()];
+            int i = 0;
+            for (String name : names) {
+                String value = values.get(i);
+                FieldMetadata field = getField(metadata, name);
+                result[i] = value == null || field.getValueType() == FieldMetadata.ValueType.STRING ? value : field.cast(value);
+                if (value != null && result[i] == null) {
+                    throw new IllegalArgumentException("Field can not be used in a cursor: " + name);
+                }
+                i++;
+            }
+            return result;
+        } catch (IllegalArgumentException e) {
+            // Cursor comes from the request, a broken or tampered one is a client error.
+            throw new WebApplicationException(e.getMessage(), e, Response.Status.BAD_REQUEST);
+        }
+    }
+
+    private static FieldMetadata getField(EntityMetadata metadata, String name) {
+        FieldMetadata field = metadata.getField(name);
+        if (field == null) {
+            throw new IllegalArgumentException("Unknown sort field: " + name);
+        }
+        return field;
     }
 
     private List<String> addRemoteMatchCriterias(SearchFrom from, String searchQ) {
         Criteria criteria = currentSession().createCriteria(from.entity());
-        Field[] fields = getCachedFields(from.entity());
+        FieldMetadata[] fields = EntityMetadata.of(from.entity()).getFieldMetadata();
         Criterion[] fieldLikes = new Criterion[fields.length];
         int i = 0;
-        for (Field field : fields) {
+        for (FieldMetadata field : fields) {
             for (String target : from.target()) {
                 if (field.getName().equals(target)) {
-                    if (field.getAnnotation(SearchIgnore.class) == null) {
+                    if (!field.isSearchIgnore()) {
                         fieldLikes[i++] = Restrictions.ilike(field.getName(), searchQ, MatchMode.ANYWHERE);
                     }
                 }
@@ -414,148 +1104,7 @@ public class BaseDao<T extends BaseEntity> extends AbstractDAO<T> {
     }
 
     public Conjunction addFilterCriterias(Field[] fields, String filterParam) {
-        String[] filters = filterParam.split(",");
-        Criterion[] fieldFilters = new Criterion[filters.length];
-        int i = 0;
-        for (String filter : filters) {
-            String[] params = parseFilterExp(filter);
-            Optional value = null;
-
-            fieldsLoop:
-            for (Field field : fields) {
-                SearchFrom searchFrom = field.getAnnotation(SearchFrom.class);
-                if (field.getName().equals(params[0]) && field.getAnnotation(Transient.class) == null) {
-                    if (params[1].equals("|=")) {
-                        String[] svalues = params[2].split("\\|");
-                        LinkedList<Object> lvalues = new LinkedList<>();
-                        for (String svalue : svalues)
-                            lvalues.add(castValue(field, svalue));
-                        value = Optional.fromNullable(lvalues);
-                    } else
-                        value = Optional.fromNullable(castValue(field, params[2]));
-                    break;
-                } else if (searchFrom != null && params[0].startsWith(field.getName())) {
-                    String filterTarget = StringsOperations.unCapitalizeFirstChar(params[0].replace(field.getName(), ""));
-                    for (String target : searchFrom.target()) {
-                        if (filterTarget.equals(target)) {
-                            Field filterField = null;
-                            try {
-                                filterField = searchFrom.entity().getDeclaredField(filterTarget);
-                            } catch (NoSuchFieldException e) {
-                                e.printStackTrace();
-                            }
-                            Criteria criteria = currentSession().createCriteria(searchFrom.entity());
-
-                            if (searchFrom.localId().isEmpty())
-                                params[0] = field.getName();
-                            else
-                                params[0] = searchFrom.localId();
-
-                            if (params[1].equals("=")) {
-
-                                if (SearchableEnum.class.isAssignableFrom(filterField.getType())) {
-                                    Enum anEnum = Enum.valueOf((Class<? extends Enum>) filterField.getType(), params[2]);
-                                    criteria.add(Restrictions.eq(filterTarget, anEnum));
-                                } else
-                                    criteria.add(Restrictions.eq(filterTarget, params[2]));
-
-                            } else if (params[1].equals("~="))
-                                criteria.add(Restrictions.ilike(filterTarget, params[2], MatchMode.ANYWHERE));
-
-                            criteria.setProjection(Projections.property(searchFrom.id()));
-                            List list = criteria.list();
-                            if (!list.isEmpty()) {
-                                value = Optional.fromNullable(list);
-                                params[1] = "|=";
-                                break fieldsLoop;
-                            }
-                            value = Optional.of("");
-                        }
-                    }
-                }
-            }
-            if (value == null)
-                continue;
-
-            switch (params[1]) {
-                case "=":
-                    if (value.isPresent())
-                        fieldFilters[i++] = Restrictions.eq(params[0], value.get());
-                    else
-                        fieldFilters[i++] = Restrictions.isNull(params[0]);
-                    break;
-                case "!=":
-                    if (value.isPresent())
-                        fieldFilters[i++] = Restrictions.ne(params[0], value.get());
-                    else
-                        fieldFilters[i++] = Restrictions.isNotNull(params[0]);
-                    break;
-                case "<":
-                    fieldFilters[i++] = Restrictions.lt(params[0], value.get());
-                    break;
-                case "<=":
-                    fieldFilters[i++] = Restrictions.le(params[0], value.get());
-                    break;
-                case ">":
-                    fieldFilters[i++] = Restrictions.gt(params[0], value.get());
-                    break;
-                case ">=":
-                    fieldFilters[i++] = Restrictions.ge(params[0], value.get());
-                    break;
-                case "~=":
-                    fieldFilters[i++] = Restrictions.ilike(params[0], params[2], MatchMode.ANYWHERE);
-                    break;
-                case "|=":
-                    fieldFilters[i++] = Restrictions.in(params[0], (Collection) value.get());
-                    break;
-            }
-        }
-        fieldFilters = Arrays.copyOf(fieldFilters, i);
-        return Restrictions.and(fieldFilters);
-
-
-    }
-
-    private Object castValue(Field field, String value) {
-        if ((field.getType() instanceof Class && ((Class<?>) field.getType()).isEnum()))
-            return Enum.valueOf((Class<? extends Enum>) field.getType(), value);
-        if ("null".equals(value))
-            return null;
-
-        switch (field.getType().getName()) {
-            case "java.math.BigDecimal":
-                return new BigDecimal(value);
-            case "java.lang.Boolean":
-            case "boolean":
-                return Boolean.parseBoolean(value);
-            case "java.lang.Double":
-            case "double":
-                return Double.parseDouble(value);
-            case "java.lang.Integer":
-            case "int":
-                return Integer.parseInt(value);
-            case "java.lang.Long":
-            case "long":
-                return Long.parseLong(value);
-            case "java.lang.String":
-                return value;
-            case "java.util.Date":
-                return new Date(Long.parseLong(value));
-
-        }
-        return null;
-    }
-
-    private Field[] getCachedFields(Class<?> entityClass) {
-        if (!fieldCache.containsKey(entityClass.getName())) {
-            List<Field> fields = new LinkedList<>();
-            getAllFields(fields, entityClass);
-            Field[] fieldArr = new Field[fields.size()];
-            fields.toArray(fieldArr);
-
-            fieldCache.put(entityClass.getName(), fieldArr);
-        }
-        return fieldCache.get(entityClass.getName());
+        return FilterPlan.compile(new EntityMetadata(fields), filterParam).toCriterion(currentSession());
     }
 }
 
@@ -0,0 +1,17 @@
+package io.robe.hibernate.dao;
+
+/**
+ * Session used by the bulk operations of {@link BaseDao}.
+ */
+public enum BulkMode {
+    /**
+     * Current session, flushed and cleared of the written entities at every JDBC batch. Cascades, listeners and the
+     * second level cache work as usual.
+     */
+    SESSION,
+    /**
+     * Stateless session on the connection of the current session, so the rows are written in the same transaction.
+     * Entities are written directly without cascades, listeners, second level cache or search index updates.
+     */
+    STATELESS
+}
@@ -0,0 +1,117 @@
+package io.robe.hibernate.dao;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Search metadata of an entity class. Fields of the class and its super classes are read once with their
+ * {@link FieldMetadata}. Parsed filter expressions are cached as {@link FilterPlan}s and the
+ * {@link io.robe.common.service.search.SearchFrom} projection as {@link SearchFromProjection}.
+ */
+final class EntityMetadata {
+
+    private static final ConcurrentHashMap<Class<?>, EntityMetadata> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * Filter values come from requests, so only the most used expressions are kept.
+     */
+    private static final int MAX_FILTER_PLANS = 256;
+
+    private final Field[] fields;
+
+    private final FieldMetadata[] fieldMetadata;
+
+    private final Map<String, FieldMetadata> fieldsByName;
+
+    private volatile SearchFromProjection searchFromProjection;
+
+    private final Cache<String, FilterPlan> filterPlans = CacheBuilder.newBuilder().maximumSize(MAX_FILTER_PLANS).build();
+
+    /**
+     * Creates the metadata of the given fields without caching.
+     *
+     * @param fields fields of the entity, fields of the sub class first
+     */
+    EntityMetadata(Field[] fields) {
+        this.fields = fields;
+        this.fieldMetadata = new FieldMetadata[fields.length];
+        this.fieldsByName = new HashMap<>(fields.length * 2);
+        for (int i = 0; i < fields.length; i++) {
+            fieldMetadata[i] = new FieldMetadata(fields[i]);
+            if (!fieldsByName.containsKey(fields[i].getName())) {
+                fieldsByName.put(fields[i].getName(), fieldMetadata[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the cached metadata of the class, creates at the first call.
+     *
+     * @param type entity class
+     * @return metadata
+     */
+    static EntityMetadata of(Class<?> type) {
+        EntityMetadata metadata = CACHE.get(type);
+        if (metadata == null) {
+            List<Field> fields = new ArrayList<>();
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                fields.addAll(Arrays.asList(current.getDeclaredFields()));
+            }
+            metadata = new EntityMetadata(fields.toArray(new Field[fields.size()]));
+            EntityMetadata previous = CACHE.putIfAbsent(type, metadata);
+            if (previous != null) {
+                metadata = previous;
+            }
+        }
+        return metadata;
+    }
+
+    Field[] getFields() {
+        return fields;
+    }
+
+    FieldMetadata[] getFieldMetadata() {
+        return fieldMetadata;
+    }
+
+    /**
+     * @param name field name
+     * @return first field with the name or null
+     */
+    FieldMetadata getField(String name) {
+        return fieldsByName.get(name);
+    }
+
+    /**
+     * @return projection of the {@link io.robe.common.service.search.SearchFrom} targets, created at the first call
+     */
+    SearchFromProjection getSearchFromProjection() {
+        if (searchFromProjection == null) {
+            searchFromProjection = new SearchFromProjection(fieldMetadata);
+        }
+        return searchFromProjection;
+    }
+
+    /**
+     * Returns the cached plan of the filter expression, compiles it if missing.
+     *
+     * @param filter filter expression (_filter parameter)
+     * @return plan
+     */
+    FilterPlan getFilterPlan(String filter) {
+        FilterPlan plan = filterPlans.getIfPresent(filter);
+        if (plan == null) {
+            plan = FilterPlan.compile(this, filter);
+            filterPlans.put(filter, plan);
+        }
+        return plan;
+    }
+}
@@ -0,0 +1,169 @@
+package io.robe.hibernate.dao;
+
+import io.robe.common.service.search.SearchFrom;
+import io.robe.common.service.search.SearchIgnore;
+import io.robe.common.service.search.SearchableEnum;
+
+import javax.persistence.Column;
+import javax.persistence.Transient;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Search related information of an entity field. Annotations and the value type are read once.
+ * The field is made accessible once, it is shared between threads.
+ */
+final class FieldMetadata {
+
+    private final Field field;
+
+    private final SearchFrom searchFrom;
+
+    private final boolean searchIgnore;
+
+    private final boolean transientField;
+
+    private final boolean column;
+
+    private final boolean searchableEnum;
+
+    private final ValueType valueType;
+
+    /**
+     * Fields of the {@link SearchFrom#entity()} for the targets, null if the entity does not declare the target.
+     */
+    private final Map<String, Field> targetFields;
+
+    FieldMetadata(Field field) {
+        field.setAccessible(true);
+        this.field = field;
+        this.searchFrom = field.getAnnotation(SearchFrom.class);
+        this.searchIgnore = field.getAnnotation(SearchIgnore.class) != null;
+        this.transientField = field.getAnnotation(Transient.class) != null;
+        this.column = field.getAnnotation(Column.class) != null;
+        this.searchableEnum = field.getType().isEnum() && SearchableEnum.class.isAssignableFrom(field.getType());
+        this.valueType = ValueType.of(field.getType());
+        if (searchFrom == null) {
+            targetFields = Collections.emptyMap();
+        } else {
+            targetFields = new HashMap<>();
+            for (String target : searchFrom.target()) {
+                Field targetField = null;
+                try {
+                    targetField = searchFrom.entity().getDeclaredField(target);
+                } catch (NoSuchFieldException e) {
+                    // Only declared fields can be filtered.
+                }
+                targetFields.put(target, targetField);
+            }
+        }
+    }
+
+    Field getField() {
+        return field;
+    }
+
+    String getName() {
+        return field.getName();
+    }
+
+    Class<?> getType() {
+        return field.getType();
+    }
+
+    SearchFrom getSearchFrom() {
+        return searchFrom;
+    }
+
+    boolean isSearchIgnore() {
+        return searchIgnore;
+    }
+
+    boolean isTransient() {
+        return transientField;
+    }
+
+    boolean isColumn() {
+        return column;
+    }
+
+    boolean isSearchableEnum() {
+        return searchableEnum;
+    }
+
+    ValueType getValueType() {
+        return valueType;
+    }
+
+    Field getTargetField(String target) {
+        return targetFields.get(target);
+    }
+
+    /**
+     * Converts the string to the type of the field.
+     *
+     * @param value string value, "null" for null
+     * @return converted value or null if the type is not supported
+     */
+    @SuppressWarnings("unchecked")
+    Object cast(String value) {
+        if (valueType == ValueType.ENUM)
+            return Enum.valueOf((Class<? extends Enum>) field.getType(), value);
+        if ("null".equals(value))
+            return null;
+
+        switch (valueType) {
+            case BIG_DECIMAL:
+                return new BigDecimal(value);
+            case BOOLEAN:
+                return Boolean.parseBoolean(value);
+            case DOUBLE:
+                return Double.parseDouble(value);
+            case INTEGER:
+                return Integer.parseInt(value);
+            case LONG:
+                return Long.parseLong(value);
+            case STRING:
+                return value;
+            case DATE:
+                return new Date(Long.parseLong(value));
+            default:
+                return null;
+        }
+    }
+
+    enum ValueType {
+        ENUM, BIG_DECIMAL, BOOLEAN, DOUBLE, INTEGER, LONG, STRING, DATE, UNSUPPORTED;
+
+        static ValueType of(Class<?> type) {
+            if (type.isEnum())
+                return ENUM;
+            switch (type.getName()) {
+                case "java.math.BigDecimal":
+                    return BIG_DECIMAL;
+                case "java.lang.Boolean":
+                case "boolean":
+                    return BOOLEAN;
+                case "java.lang.Double":
+                case "double":
+                    return DOUBLE;
+                case "java.lang.Integer":
+                case "int":
+                    return INTEGER;
+                case "java.lang.Long":
+                case "long":
+                    return LONG;
+                case "java.lang.String":
+                    return STRING;
+                case "java.util.Date":
+                    return DATE;
+                default:
+                    return UNSUPPORTED;
+            }
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package io.robe.hibernate.dao;
+
+import com.google.common.base.Optional;
+import io.robe.common.service.search.SearchFrom;
+import io.robe.common.service.search.SearchableEnum;
+import io.robe.common.utils.StringsOperations;
+import org.hibernate.Criteria;
+import org.hibernate.Session;
+import org.hibernate.criterion.Conjunction;
+import org.hibernate.criterion.Criterion;
+import org.hibernate.criterion.MatchMode;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * Parsed form of a filter expression (_filter parameter) for an entity. Terms are resolved to the fields and their
+ * values are converted once. Only {@link SearchFrom} terms need queries while creating the restrictions.
+ * Plans are immutable and shared between requests.
+ */
+final class FilterPlan {
+
+    private final Term[] terms;
+
+    private FilterPlan(Term[] terms) {
+        this.terms = terms;
+    }
+
+    /**
+     * Parses the filter expression and resolves its terms to the fields of the entity.
+     *
+     * @param metadata metadata of the entity
+     * @param filter   comma separated filter expression, ex. name~=robe,age>=18
+     * @return plan
+     */
+    static FilterPlan compile(EntityMetadata metadata, String filter) {
+        String[] filters = filter.split(",");
+        List<Term> terms = new ArrayList<>(filters.length);
+        for (String expression : filters) {
+            String[] params = parseFilterExp(expression);
+            List<FieldMetadata> searchFromFields = new ArrayList<>(1);
+            List<String> targets = new ArrayList<>(1);
+            Optional value = null;
+            for (FieldMetadata field : metadata.getFieldMetadata()) {
+                SearchFrom searchFrom = field.getSearchFrom();
+                if (field.getName().equals(params[0]) && !field.isTransient()) {
+                    if (params[1].equals("|=")) {
+                        String[] svalues = params[2].split("\\|");
+                        LinkedList<Object> lvalues = new LinkedList<>();
+                        for (String svalue : svalues)
+                            lvalues.add(field.cast(svalue));
+                        value = Optional.fromNullable(lvalues);
+                    } else
+                        value = Optional.fromNullable(field.cast(params[2]));
+                    break;
+                } else if (searchFrom != null && params[0].startsWith(field.getName())) {
+                    String filterTarget = StringsOperations.unCapitalizeFirstChar(params[0].replace(field.getName(), ""));
+                    for (String target : searchFrom.target()) {
+                        if (filterTarget.equals(target)) {
+                            searchFromFields.add(field);
+                            targets.add(target);
+                        }
+                    }
+                }
+            }
+            if (value != null || !searchFromFields.isEmpty()) {
+                terms.add(new Term(params, value, searchFromFields.toArray(new FieldMetadata[searchFromFields.size()]),
+                        targets.toArray(new String[targets.size()])));
+            }
+        }
+        return new FilterPlan(terms.toArray(new Term[terms.size()]));
+    }
+
+    private static String[] parseFilterExp(String filter) {
+        char[] chars = filter.toCharArray();
+        char[] name = new char[chars.length];
+        char[] op = new char[2];
+        char[] value = new char[chars.length];
+        int nIndex = 0;
+        int oIndex = 0;
+        int vIndex = 0;
+        short part = 0;
+        for (int i = 0; i < chars.length; i++) {
+            switch (part) {
+                case 0://Filling name
+                    switch (chars[i]) {
+                        case '=':
+                        case '!':
+                        case '<':
+                        case '>':
+                        case '~':
+                        case '|':
+                            //Jump to operation
+                            op[oIndex++] = chars[i];
+                            part = 1;
+                            break;
+                        default:
+                            name[nIndex++] = chars[i];
+                    }
+                    break;
+                case 1://Filling op
+                    switch (chars[i]) {
+                        case '=':
+                            op[oIndex++] = chars[i];
+                            break;
+                        default:
+                            //Jump to value
+                            value[vIndex++] = chars[i];
+                            part = 2;
+                    }
+                    break;
+                case 2://Filling value
+                    value[vIndex++] = chars[i];
+                    break;
+            }
+        }
+
+        return new String[]{
+                new String(name, 0, nIndex),
+                new String(op, 0, oIndex),
+                new String(value, 0, vIndex)};
+    }
+
+    /**
+     * Creates the restrictions of the plan. {@link SearchFrom} terms are resolved to the ids of the matching rows.
+     *
+     * @param session session to query {@link SearchFrom} entities
+     * @return restrictions of all terms
+     */
+    Conjunction toCriterion(Session session) {
+        Criterion[] fieldFilters = new Criterion[terms.length];
+        int i = 0;
+        for (Term term : terms) {
+            Criterion criterion = term.toCriterion(session);
+            if (criterion != null)
+                fieldFilters[i++] = criterion;
+        }
+        return Restrictions.and(Arrays.copyOf(fieldFilters, i));
+    }
+
+    private static final class Term {
+
+        private final String name;
+
+        private final String operator;
+
+        private final String rawValue;
+
+        /**
+         * Converted value if the term matches a field, null if not.
+         */
+        private final Optional value;
+
+        /**
+         * {@link SearchFrom} fields matching the term, in the field order and before the matching field.
+         */
+        private final FieldMetadata[] searchFromFields;
+
+        private final String[] targets;
+
+        private Term(String[] params, Optional value, FieldMetadata[] searchFromFields, String[] targets) {
+            this.name = params[0];
+            this.operator = params[1];
+            this.rawValue = params[2];
+            this.value = value;
+            this.searchFromFields = searchFromFields;
+            this.targets = targets;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Criterion toCriterion(Session session) {
+            String name = this.name;
+            String operator = this.operator;
+            Optional value = null;
+            boolean found = false;
+            for (int i = 0; i < searchFromFields.length; i++) {
+                FieldMetadata field = searchFromFields[i];
+                SearchFrom searchFrom = field.getSearchFrom();
+                String filterTarget = targets[i];
+                Field filterField = field.getTargetField(filterTarget);
+                Criteria criteria = session.createCriteria(searchFrom.entity());
+
+                if (searchFrom.localId().isEmpty())
+                    name = field.getName();
+                else
+                    name = searchFrom.localId();
+
+                if (operator.equals("=")) {
+
+                    if (SearchableEnum.class.isAssignableFrom(filterField.getType())) {
+                        Enum anEnum = Enum.valueOf((Class<? extends Enum>) filterField.getType(), rawValue);
+                        criteria.add(Restrictions.eq(filterTarget, anEnum));
+                    } else
+                        criteria.add(Restrictions.eq(filterTarget, rawValue));
+
+                } else if (operator.equals("~="))
+                    criteria.add(Restrictions.ilike(filterTarget, rawValue, MatchMode.ANYWHERE));
+
+                criteria.setProjection(Projections.property(searchFrom.id()));
+                List list = criteria.list();
+                if (!list.isEmpty()) {
+                    value = Optional.fromNullable(list);
+                    operator = "|=";
+                    found = true;
+                    break;
+                }
+                value = Optional.of("");
+            }
+            if (!found && this.value != null) {
+                name = this.name;
+                value = this.value;
+            }
+            if (value == null)
+                return null;
+
+            switch (operator) {
+                case "=":
+                    if (value.isPresent())
+                        return Restrictions.eq(name, value.get());
+                    else
+                        return Restrictions.isNull(name);
+                case "!=":
+                    if (value.isPresent())
+                        return Restrictions.ne(name, value.get());
+                    else
+                        return Restrictions.isNotNull(name);
+                case "<":
+                    return Restrictions.lt(name, value.get());
+                case "<=":
+                    return Restrictions.le(name, value.get());
+                case ">":
+                    return Restrictions.gt(name, value.get());
+                case ">=":
+                    return Restrictions.ge(name, value.get());
+                case "~=":
+                    return Restrictions.ilike(name, rawValue, MatchMode.ANYWHERE);
+                case "|=":
+                    return Restrictions.in(name, (Collection) value.get());
+                default:
+                    return null;
+            }
+        }
+    }
+}
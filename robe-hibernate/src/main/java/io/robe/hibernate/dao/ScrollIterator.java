@@ -0,0 +1,89 @@
+package io.robe.hibernate.dao;
+
+import org.hibernate.ScrollableResults;
+import org.hibernate.Session;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Forward only {@link Iterator} over {@link ScrollableResults}. Rows are read from the database cursor one by one
+ * and every entity is evicted from the session after the next row is requested, so the session does not grow with
+ * the result set. Results are closed after the last row or with {@link #close()}.
+ * Must be consumed while the session is open.
+ *
+ * @param <E> type of the rows
+ */
+public class ScrollIterator<E> implements Iterator<E>, Closeable {
+
+    private final Session session;
+
+    private final ScrollableResults results;
+
+    private Boolean hasNext;
+
+    private Object last;
+
+    private boolean closed;
+
+    /**
+     * Creates an iterator over the results.
+     *
+     * @param session session of the results
+     * @param results forward only results
+     */
+    public ScrollIterator(Session session, ScrollableResults results) {
+        this.session = session;
+        this.results = results;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (hasNext == null) {
+            evictLast();
+            hasNext = !closed && results.next();
+            if (!hasNext) {
+                close();
+            }
+        }
+        return hasNext;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hasNext = null;
+        last = results.get(0);
+        return (E) last;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("remove");
+    }
+
+    /**
+     * Closes the results and evicts the last entity. Does nothing if already closed.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            evictLast();
+            results.close();
+        }
+    }
+
+    private void evictLast() {
+        // Projected rows are maps, only entities are in the session.
+        if (last != null && !(last instanceof Map) && session.contains(last)) {
+            session.evict(last);
+        }
+        last = null;
+    }
+}
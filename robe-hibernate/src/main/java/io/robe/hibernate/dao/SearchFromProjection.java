@@ -0,0 +1,265 @@
+package io.robe.hibernate.dao;
+
+import io.robe.common.service.search.SearchFrom;
+import io.robe.common.utils.StringsOperations;
+import org.hibernate.Criteria;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.criterion.Projection;
+import org.hibernate.criterion.ProjectionList;
+import org.hibernate.criterion.Projections;
+import org.hibernate.criterion.Restrictions;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.H2Dialect;
+import org.hibernate.dialect.MySQLDialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.type.StringType;
+import org.hibernate.type.Type;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Projection of an entity with the targets of its {@link SearchFrom} fields. Targets are named with the field name
+ * and the capitalized target name, ex. roleName for role field. Targets of the fields with
+ * {@link SearchFrom#localId()} are read from many rows and joined with commas.
+ * Targets are read either with a second query for every field ({@link #fill(List, Session)}) or with sub selects
+ * ({@link #toSqlProjection(SessionFactoryImplementor, Class)}). Created once for every entity class.
+ */
+final class SearchFromProjection {
+
+    /**
+     * Max number of values in an in restriction, some databases do not accept more.
+     */
+    static final int MAX_IN_VALUES = 1000;
+
+    /**
+     * Column properties of the entity and the {@link SearchFrom} fields without local ids.
+     */
+    private final Set<String> columns;
+
+    /**
+     * Columns and the local keys of the {@link SearchFrom} fields.
+     */
+    private final Set<String> properties;
+
+    private final Target[] targets;
+
+    /**
+     * Sub selects of the targets by session factory, table and column names differ with the naming strategies.
+     */
+    private final ConcurrentHashMap<SessionFactory, String[]> sqlFragments = new ConcurrentHashMap<>(2);
+
+    SearchFromProjection(FieldMetadata[] fields) {
+        Set<String> columns = new LinkedHashSet<>();
+        Set<String> properties = new LinkedHashSet<>();
+        List<Target> targets = new ArrayList<>();
+        for (FieldMetadata field : fields) {
+            SearchFrom searchFrom = field.getSearchFrom();
+            if (searchFrom != null) {
+                Target target = new Target(field.getName(), searchFrom);
+                if (!target.many) {
+                    columns.add(target.key);
+                }
+                properties.add(target.key);
+                targets.add(target);
+            } else if (field.isColumn()) {
+                columns.add(field.getName());
+                properties.add(field.getName());
+            }
+        }
+        this.columns = Collections.unmodifiableSet(columns);
+        this.properties = Collections.unmodifiableSet(properties);
+        this.targets = targets.toArray(new Target[targets.size()]);
+    }
+
+    /**
+     * Creates the projection of the column properties and the local keys, targets are filled later with
+     * {@link #fill(List, Session)}.
+     *
+     * @param extraProperties properties to add if missing, ex. sort fields
+     * @return projection with the property names as aliases
+     */
+    Projection toProjection(Collection<String> extraProperties) {
+        Set<String> names = new LinkedHashSet<>(properties);
+        names.addAll(extraProperties);
+        ProjectionList projectionList = Projections.projectionList();
+        for (String name : names) {
+            projectionList.add(Projections.property(name), name);
+        }
+        return projectionList;
+    }
+
+    /**
+     * Reads the targets of the rows with one query for every {@link SearchFrom} field and puts them to the rows.
+     *
+     * @param rows    rows of {@link #toProjection(Collection)}
+     * @param session session to query the {@link SearchFrom} entities
+     */
+    void fill(List<Map<String, Object>> rows, Session session) {
+        for (Target target : targets) {
+            Set<Object> keys = new HashSet<>();
+            for (Map<String, Object> row : rows) {
+                Object key = row.get(target.key);
+                if (key != null) {
+                    keys.add(key);
+                }
+            }
+            Map<Object, List<Object[]>> values = keys.isEmpty() ?
+                    Collections.<Object, List<Object[]>>emptyMap() : fetch(session, target.searchFrom, keys);
+            for (Map<String, Object> row : rows) {
+                List<Object[]> found = values.get(row.get(target.key));
+                for (int i = 0; i < target.aliases.length; i++) {
+                    row.put(target.aliases[i], target.many ? join(found, i) : found == null ? null : found.get(0)[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates the projection of the column properties and the targets as sub selects. Targets of the fields with
+     * {@link SearchFrom#localId()} are aggregated with group_concat on MySQL and H2, string_agg on PostgreSQL.
+     *
+     * @param factory     session factory of the entity
+     * @param entityClass class of the entity
+     * @return projection with the property and target names as aliases
+     * @throws UnsupportedOperationException if the dialect has no string aggregation and a field has a local id
+     */
+    Projection toSqlProjection(SessionFactoryImplementor factory, Class<?> entityClass) {
+        String[] fragments = sqlFragments.get(factory);
+        if (fragments == null) {
+            fragments = createSqlFragments(factory, entityClass);
+            sqlFragments.putIfAbsent(factory, fragments);
+        }
+        ProjectionList projectionList = Projections.projectionList();
+        int i = 0;
+        for (Target target : targets) {
+            for (String alias : target.aliases) {
+                projectionList.add(Projections.alias(Projections.sqlProjection(fragments[i++],
+                        new String[]{alias}, new Type[]{StringType.INSTANCE}), alias));
+            }
+        }
+        for (String name : columns) {
+            projectionList.add(Projections.property(name), name);
+        }
+        return projectionList;
+    }
+
+    private String[] createSqlFragments(SessionFactoryImplementor factory, Class<?> entityClass) {
+        AbstractEntityPersister local = (AbstractEntityPersister) factory.getClassMetadata(entityClass);
+        List<String> fragments = new ArrayList<>();
+        for (Target target : targets) {
+            AbstractEntityPersister remote = (AbstractEntityPersister) factory.getClassMetadata(target.searchFrom.entity());
+            String where = " from " + remote.getTableName() + " where "
+                    + remote.getPropertyColumnNames(target.searchFrom.id())[0] + " = {alias}."
+                    + local.getPropertyColumnNames(target.key)[0] + ") as ";
+            for (int i = 0; i < target.aliases.length; i++) {
+                String column = remote.getPropertyColumnNames(target.searchFrom.target()[i])[0];
+                String select = target.many ? aggregate(factory.getDialect(), column) : column;
+                fragments.add("(select " + select + where + target.aliases[i]);
+            }
+        }
+        return fragments.toArray(new String[fragments.size()]);
+    }
+
+    private static String aggregate(Dialect dialect, String column) {
+        if (dialect instanceof MySQLDialect || dialect instanceof H2Dialect) {
+            return "group_concat(" + column + ")";
+        } else if (dialect instanceof PostgreSQL81Dialect) {
+            return "string_agg(cast(" + column + " as varchar), ',')";
+        }
+        throw new UnsupportedOperationException("No string aggregation for " + dialect.getClass().getName()
+                + ", read the targets with BaseDao.findAllWithSearchFrom.");
+    }
+
+    private static Object join(List<Object[]> rows, int index) {
+        if (rows == null) {
+            return null;
+        }
+        StringBuilder builder = null;
+        for (Object[] row : rows) {
+            if (row[index] == null) {
+                continue;
+            }
+            if (builder == null) {
+                builder = new StringBuilder();
+            } else {
+                builder.append(',');
+            }
+            builder.append(row[index]);
+        }
+        return builder == null ? null : builder.toString();
+    }
+
+    /**
+     * Reads the targets of the {@link SearchFrom} entity rows with the given ids. Ids are queried with in
+     * restrictions of {@link #MAX_IN_VALUES} values.
+     *
+     * @param session session to query
+     * @param from    annotation of the field
+     * @param ids     ids of the rows
+     * @return target values in the order of {@link SearchFrom#target()} by id
+     */
+    static Map<Object, List<Object[]>> fetch(Session session, SearchFrom from, Collection<Object> ids) {
+        Map<Object, List<Object[]>> rows = new HashMap<>(ids.size() * 2);
+        List<Object> idList = new ArrayList<>(ids);
+        for (int start = 0; start < idList.size(); start += MAX_IN_VALUES) {
+            Criteria criteria = session.createCriteria(from.entity());
+            criteria.add(Restrictions.in(from.id(), idList.subList(start, Math.min(start + MAX_IN_VALUES, idList.size()))));
+            ProjectionList projections = Projections.projectionList();
+            projections.add(Projections.property(from.id()));
+            for (String target : from.target()) {
+                projections.add(Projections.property(target));
+            }
+            criteria.setProjection(projections);
+            for (Object result : criteria.list()) {
+                Object[] row = (Object[]) result;
+                List<Object[]> values = rows.get(row[0]);
+                if (values == null) {
+                    values = new ArrayList<>(1);
+                    rows.put(row[0], values);
+                }
+                values.add(Arrays.copyOfRange(row, 1, row.length));
+            }
+        }
+        return rows;
+    }
+
+    private static final class Target {
+
+        private final SearchFrom searchFrom;
+
+        /**
+         * Local property matched with {@link SearchFrom#id()}.
+         */
+        private final String key;
+
+        /**
+         * True if many rows match a local row.
+         */
+        private final boolean many;
+
+        private final String[] aliases;
+
+        private Target(String fieldName, SearchFrom searchFrom) {
+            this.searchFrom = searchFrom;
+            this.many = !searchFrom.localId().isEmpty();
+            this.key = many ? searchFrom.localId() : fieldName;
+            this.aliases = new String[searchFrom.target().length];
+            for (int i = 0; i < aliases.length; i++) {
+                aliases[i] = fieldName + StringsOperations.capitalizeFirstChar(searchFrom.target()[i]);
+            }
+        }
+    }
+}
@@ -0,0 +1,369 @@
+package io.robe.hibernate.search;
+
+import io.robe.hibernate.entity.BaseEntity;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.analysis.util.CharArraySet;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.PrefixQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.SimpleCollector;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.RAMDirectory;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.criterion.Projections;
+import org.hibernate.metadata.ClassMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded Lucene index. Every entity is a document with its oid, version, class name and {@link SearchText}.
+ * Words of the query are matched as prefixes of the words of the entity, all words must match.
+ * Index is kept in memory or in the configured directory, changes are committed to the directory periodically.
+ * Every node keeps its own index. Local commits are indexed at once, changes of the other nodes and changes made
+ * while the node was down are found by reconciling the versions of the index with the database at start and
+ * periodically.
+ */
+public class LuceneSearchIndex implements SearchIndex {
+    private static final Logger LOGGER = LoggerFactory.getLogger(LuceneSearchIndex.class);
+
+    private static final String KEY = "key";
+    private static final String OID = "oid";
+    private static final String TYPE = "type";
+    private static final String VERSION = "version";
+    private static final String TEXT = "text";
+
+    private static final Set<String> OID_FIELD = Collections.singleton(OID);
+    private static final Set<String> VERSION_FIELDS = new HashSet<>(Arrays.asList(OID, VERSION));
+
+    private SearchIndexConfiguration configuration;
+    private SessionFactory sessionFactory;
+    private Set<Class<?>> indexedClasses;
+    private Analyzer analyzer;
+    private IndexWriter writer;
+    private SearcherManager searcherManager;
+    private ScheduledExecutorService committer;
+
+    @Override
+    public void configure(SearchIndexConfiguration configuration, SessionFactory sessionFactory) {
+        this.configuration = configuration;
+        this.sessionFactory = sessionFactory;
+        Set<Class<?>> classes = new HashSet<>();
+        for (ClassMetadata metadata : sessionFactory.getAllClassMetadata().values()) {
+            Class<?> mappedClass = metadata.getMappedClass();
+            if (mappedClass != null && mappedClass.isAnnotationPresent(SearchIndexed.class)) {
+                classes.add(mappedClass);
+            }
+        }
+        indexedClasses = Collections.unmodifiableSet(classes);
+    }
+
+    @Override
+    public void start() throws Exception {
+        Directory directory = configuration.getPath() == null || configuration.getPath().isEmpty() ?
+                new RAMDirectory() : FSDirectory.open(Paths.get(configuration.getPath()));
+        // Stop words are not removed, short words are meaningful in names.
+        analyzer = new StandardAnalyzer(CharArraySet.EMPTY_SET);
+        writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        searcherManager = new SearcherManager(writer, true, null);
+
+        for (Class<?> indexedClass : indexedClasses) {
+            if (configuration.isRebuildOnStart() || count(indexedClass) == 0) {
+                rebuild(indexedClass);
+            } else {
+                reconcile(indexedClass);
+            }
+        }
+        writer.commit();
+
+        committer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "search-index-commit");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        committer.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                commit();
+            }
+        }, configuration.getCommitInterval(), configuration.getCommitInterval(), TimeUnit.SECONDS);
+        if (configuration.getReconcileInterval() > 0) {
+            committer.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    reconcileAll();
+                }
+            }, configuration.getReconcileInterval(), configuration.getReconcileInterval(), TimeUnit.SECONDS);
+        }
+    }
+
+    @Override
+    public void stop() throws Exception {
+        committer.shutdown();
+        searcherManager.close();
+        writer.close();
+    }
+
+    @Override
+    public boolean isIndexed(Class<?> entityClass) {
+        return indexedClasses.contains(entityClass);
+    }
+
+    @Override
+    public void index(BaseEntity entity) {
+        try {
+            writer.updateDocument(new Term(KEY, key(entity.getClass(), entity.getOid())), toDocument(entity));
+        } catch (IOException e) {
+            LOGGER.error("Can't index " + entity.getClass().getName() + ": " + entity.getOid(), e);
+        }
+    }
+
+    @Override
+    public void remove(Class<?> entityClass, Serializable oid) {
+        try {
+            writer.deleteDocuments(new Term(KEY, key(entityClass, oid)));
+        } catch (IOException e) {
+            LOGGER.error("Can't remove from index " + entityClass.getName() + ": " + oid, e);
+        }
+    }
+
+    @Override
+    public Set<String> search(Class<?> entityClass, String q) {
+        BooleanQuery.Builder query = new BooleanQuery.Builder();
+        query.add(new TermQuery(new Term(TYPE, entityClass.getName())), BooleanClause.Occur.FILTER);
+        boolean hasTerm = false;
+        try (TokenStream tokens = analyzer.tokenStream(TEXT, q)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            while (tokens.incrementToken()) {
+                query.add(new PrefixQuery(new Term(TEXT, term.toString())), BooleanClause.Occur.MUST);
+                hasTerm = true;
+            }
+            tokens.end();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!hasTerm) {
+            return Collections.emptySet();
+        }
+
+        try {
+            searcherManager.maybeRefresh();
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                TopDocs docs = searcher.search(query.build(), configuration.getMaxResults());
+                if (docs.totalHits > configuration.getMaxResults()) {
+                    // Truncated oids would silently drop rows and break the counts.
+                    LOGGER.debug("Search of " + entityClass.getName() + " matches " + docs.totalHits
+                            + " entities, more than " + configuration.getMaxResults());
+                    return null;
+                }
+                Set<String> oids = new LinkedHashSet<>(docs.scoreDocs.length * 2);
+                for (ScoreDoc doc : docs.scoreDocs) {
+                    oids.add(searcher.doc(doc.doc, OID_FIELD).get(OID));
+                }
+                return oids;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Replaces the documents of the class with the entities in the database.
+     *
+     * @param entityClass indexed class
+     */
+    public void rebuild(Class<?> entityClass) throws IOException {
+        long start = System.currentTimeMillis();
+        writer.deleteDocuments(new Term(TYPE, entityClass.getName()));
+        StatelessSession session = sessionFactory.openStatelessSession();
+        int count = 0;
+        try {
+            ScrollableResults results = session.createCriteria(entityClass)
+                    .setFetchSize(500)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (results.next()) {
+                    BaseEntity entity = (BaseEntity) results.get(0);
+                    writer.addDocument(toDocument(entity));
+                    count++;
+                }
+            } finally {
+                results.close();
+            }
+        } finally {
+            session.close();
+        }
+        LOGGER.info("Search index of " + entityClass.getName() + " is built with " + count + " entities in "
+                + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Brings the documents of the class up to date with the database. Versions of the entities are compared with the
+     * versions in the index, changed and missing entities are indexed again and documents of the deleted entities are
+     * removed. Cheaper than {@link #rebuild(Class)} when most of the documents are up to date.
+     *
+     * @param entityClass indexed class
+     */
+    public void reconcile(Class<?> entityClass) throws IOException {
+        long start = System.currentTimeMillis();
+        // Index is read before the database, so an entity committed in between is never taken as deleted.
+        Map<String, Long> indexed = readVersions(entityClass);
+        List<String> changed = new ArrayList<>();
+        StatelessSession session = sessionFactory.openStatelessSession();
+        try {
+            ScrollableResults results = session.createCriteria(entityClass)
+                    .setProjection(Projections.projectionList()
+                            .add(Projections.property("oid"))
+                            .add(Projections.property("lastUpdated")))
+                    .setFetchSize(1000)
+                    .scroll(ScrollMode.FORWARD_ONLY);
+            try {
+                while (results.next()) {
+                    Long version = indexed.remove(results.get(0));
+                    if (version == null || version != ((Number) results.get(1)).longValue()) {
+                        changed.add((String) results.get(0));
+                    }
+                }
+            } finally {
+                results.close();
+            }
+            for (String oid : changed) {
+                BaseEntity entity = (BaseEntity) session.get(entityClass, oid);
+                if (entity == null) {
+                    remove(entityClass, oid);
+                } else {
+                    writer.updateDocument(new Term(KEY, key(entityClass, oid)), toDocument(entity));
+                }
+            }
+        } finally {
+            session.close();
+        }
+        for (String oid : indexed.keySet()) {
+            remove(entityClass, oid);
+        }
+        if (!changed.isEmpty() || !indexed.isEmpty()) {
+            LOGGER.info("Search index of " + entityClass.getName() + " is reconciled, " + changed.size()
+                    + " indexed and " + indexed.size() + " removed in " + (System.currentTimeMillis() - start) + " ms");
+        }
+    }
+
+    private void reconcileAll() {
+        for (Class<?> indexedClass : indexedClasses) {
+            try {
+                reconcile(indexedClass);
+            } catch (IOException | RuntimeException e) {
+                LOGGER.error("Can't reconcile search index of " + indexedClass.getName(), e);
+            }
+        }
+    }
+
+    private Map<String, Long> readVersions(Class<?> entityClass) throws IOException {
+        searcherManager.maybeRefresh();
+        final IndexSearcher searcher = searcherManager.acquire();
+        try {
+            final Map<String, Long> versions = new HashMap<>();
+            searcher.search(new TermQuery(new Term(TYPE, entityClass.getName())), new SimpleCollector() {
+                private int docBase;
+
+                @Override
+                protected void doSetNextReader(LeafReaderContext context) {
+                    docBase = context.docBase;
+                }
+
+                @Override
+                public void collect(int doc) throws IOException {
+                    Document document = searcher.doc(docBase + doc, VERSION_FIELDS);
+                    IndexableField version = document.getField(VERSION);
+                    // Documents of older indexes have no version, they are indexed again.
+                    versions.put(document.get(OID), version == null ? -1L : version.numericValue().longValue());
+                }
+
+                @Override
+                public boolean needsScores() {
+                    return false;
+                }
+            });
+            return versions;
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private int count(Class<?> entityClass) throws IOException {
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.count(new TermQuery(new Term(TYPE, entityClass.getName())));
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private void commit() {
+        try {
+            if (writer.hasUncommittedChanges()) {
+                writer.commit();
+            }
+        } catch (IOException e) {
+            LOGGER.error("Can't commit search index", e);
+        }
+    }
+
+    private static Document toDocument(BaseEntity entity) {
+        Document document = new Document();
+        document.add(new StringField(KEY, key(entity.getClass(), entity.getOid()), Field.Store.NO));
+        document.add(new StringField(OID, entity.getOid(), Field.Store.YES));
+        document.add(new StoredField(VERSION, entity.getLastUpdated()));
+        document.add(new StringField(TYPE, entity.getClass().getName(), Field.Store.NO));
+        document.add(new TextField(TEXT, SearchText.of(entity), Field.Store.NO));
+        return document;
+    }
+
+    private static String key(Class<?> entityClass, Serializable oid) {
+        return entityClass.getName() + '/' + oid;
+    }
+}
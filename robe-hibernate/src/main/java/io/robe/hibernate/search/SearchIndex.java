@@ -0,0 +1,55 @@
+package io.robe.hibernate.search;
+
+import io.dropwizard.lifecycle.Managed;
+import io.robe.hibernate.entity.BaseEntity;
+import org.hibernate.SessionFactory;
+
+import java.io.Serializable;
+import java.util.Set;
+
+/**
+ * Full text index of the entities annotated with {@link SearchIndexed}. Entities are indexed from the committed
+ * inserts, updates and deletes of Hibernate. {@link io.robe.hibernate.dao.BaseDao} resolves the _q parameter to
+ * oids from the index.
+ */
+public interface SearchIndex extends Managed {
+
+    /**
+     * Called once before start.
+     *
+     * @param configuration  configuration of the index
+     * @param sessionFactory session factory of the indexed entities, used to build the index
+     */
+    void configure(SearchIndexConfiguration configuration, SessionFactory sessionFactory);
+
+    /**
+     * @param entityClass entity class
+     * @return true if the entities of the class are kept in the index
+     */
+    boolean isIndexed(Class<?> entityClass);
+
+    /**
+     * Adds or replaces the document of the entity.
+     *
+     * @param entity committed entity
+     */
+    void index(BaseEntity entity);
+
+    /**
+     * Removes the document of the entity.
+     *
+     * @param entityClass class of the deleted entity
+     * @param oid         oid of the deleted entity
+     */
+    void remove(Class<?> entityClass, Serializable oid);
+
+    /**
+     * Searches the entities of the class.
+     *
+     * @param entityClass indexed entity class
+     * @param q           free text
+     * @return oids of all matching entities, never truncated, or null if the search matches too many entities
+     * to be listed and must be made without the index
+     */
+    Set<String> search(Class<?> entityClass, String q);
+}
@@ -0,0 +1,66 @@
+package io.robe.hibernate.search;
+
+import io.dropwizard.Configuration;
+import io.dropwizard.ConfiguredBundle;
+import io.dropwizard.setup.Bootstrap;
+import io.dropwizard.setup.Environment;
+import io.robe.hibernate.HasHibernateConfiguration;
+import io.robe.hibernate.RobeHibernateBundle;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bundle for the {@link SearchIndex}. Must be added after {@link RobeHibernateBundle}.
+ * Creates the configured index, registers its listener to the session factory and manages its lifecycle.
+ */
+public class SearchIndexBundle<T extends Configuration & HasHibernateConfiguration> implements ConfiguredBundle<T> {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexBundle.class);
+
+    private static SearchIndex index;
+
+    /**
+     * @return configured index or null if there is no searchIndex configuration
+     */
+    public static SearchIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public void run(T configuration, Environment environment) throws Exception {
+        SearchIndexConfiguration indexConfiguration = configuration.getHibernateConfiguration().getSearchIndex();
+        if (indexConfiguration == null) {
+            LOGGER.warn("Bundle included but no configuration (hibernate.searchIndex) found at yml.");
+            return;
+        }
+        SessionFactory sessionFactory = RobeHibernateBundle.getInstance().getSessionFactory();
+        SearchIndex instance = Class.forName(indexConfiguration.getIndexClass()).asSubclass(SearchIndex.class).newInstance();
+        instance.configure(indexConfiguration, sessionFactory);
+        register(instance, sessionFactory);
+        environment.lifecycle().manage(instance);
+        LOGGER.info("Search index: " + indexConfiguration.getIndexClass());
+    }
+
+    /**
+     * Registers the listener of the index to the session factory and makes it the index of the daos.
+     *
+     * @param instance       configured index
+     * @param sessionFactory session factory of the indexed entities
+     */
+    static void register(SearchIndex instance, SessionFactory sessionFactory) {
+        EventListenerRegistry registry = ((SessionFactoryImplementor) sessionFactory).getServiceRegistry()
+                .getService(EventListenerRegistry.class);
+        SearchIndexEventListener listener = new SearchIndexEventListener(instance);
+        registry.appendListeners(EventType.POST_COMMIT_INSERT, listener);
+        registry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        registry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        index = instance;
+    }
+
+    @Override
+    public void initialize(Bootstrap<?> bootstrap) {
+    }
+}
@@ -0,0 +1,68 @@
+package io.robe.hibernate.search;
+
+import javax.validation.constraints.Min;
+
+/**
+ * Configuration of the {@link SearchIndex}, read from the searchIndex element of the hibernate configuration.
+ */
+public class SearchIndexConfiguration {
+
+    private String indexClass = "io.robe.hibernate.search.LuceneSearchIndex";
+
+    private String path;
+
+    @Min(1)
+    private int maxResults = 1000;
+
+    private boolean rebuildOnStart = false;
+
+    @Min(1)
+    private int commitInterval = 10;
+
+    @Min(0)
+    private int reconcileInterval = 60;
+
+    /**
+     * @return class name of the {@link SearchIndex} implementation
+     */
+    public String getIndexClass() {
+        return indexClass;
+    }
+
+    /**
+     * @return directory of the index, kept in memory if empty
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return max number of entities a search may match, they are queried with an in restriction. Searches matching
+     * more entities are made with like queries instead of being truncated.
+     */
+    public int getMaxResults() {
+        return maxResults;
+    }
+
+    /**
+     * @return true to rebuild the index of all entities at start, entities without documents are always built
+     */
+    public boolean isRebuildOnStart() {
+        return rebuildOnStart;
+    }
+
+    /**
+     * @return seconds between commits of the index changes to the directory
+     */
+    public int getCommitInterval() {
+        return commitInterval;
+    }
+
+    /**
+     * @return seconds between the reconciliations of the index with the database, 0 to disable. Changes committed
+     * by the other nodes are indexed by the reconciliation, the index is always reconciled at start.
+     */
+    public int getReconcileInterval() {
+        return reconcileInterval;
+    }
+}
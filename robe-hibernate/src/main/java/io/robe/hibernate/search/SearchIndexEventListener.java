@@ -0,0 +1,68 @@
+package io.robe.hibernate.search;
+
+import io.robe.hibernate.entity.BaseEntity;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the {@link SearchIndex} up to date with the committed changes. Changes of rolled back transactions are
+ * never indexed.
+ */
+class SearchIndexEventListener implements PostCommitInsertEventListener, PostCommitUpdateEventListener,
+        PostCommitDeleteEventListener {
+    private static final Logger LOGGER = LoggerFactory.getLogger(SearchIndexEventListener.class);
+
+    private final transient SearchIndex index;
+
+    SearchIndexEventListener(SearchIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return index.isIndexed(persister.getMappedClass());
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof BaseEntity && index.isIndexed(event.getEntity().getClass())) {
+            index.index((BaseEntity) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (event.getEntity() instanceof BaseEntity && index.isIndexed(event.getEntity().getClass())) {
+            index.index((BaseEntity) event.getEntity());
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (index.isIndexed(event.getEntity().getClass())) {
+            index.remove(event.getEntity().getClass(), event.getId());
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+        LOGGER.debug("Insert is not committed, not indexed: " + event.getId());
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+        LOGGER.debug("Update is not committed, not indexed: " + event.getId());
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+        LOGGER.debug("Delete is not committed, not removed from index: " + event.getId());
+    }
+}
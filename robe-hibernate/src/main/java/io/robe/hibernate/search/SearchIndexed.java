@@ -0,0 +1,15 @@
+package io.robe.hibernate.search;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an entity to be kept in the {@link SearchIndex}. Full text search (_q) of the entity is resolved from the
+ * index instead of like queries.
+ */
+@Target({ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SearchIndexed {
+}
@@ -0,0 +1,71 @@
+package io.robe.hibernate.search;
+
+import io.robe.common.service.search.SearchFrom;
+import io.robe.common.service.search.SearchIgnore;
+import io.robe.common.service.search.SearchableEnum;
+
+import javax.persistence.Transient;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds the searchable text of an entity from the same fields the like search uses: String fields and texts of
+ * {@link SearchableEnum} fields which are not {@link SearchIgnore}d or {@link Transient}. {@link SearchFrom} fields are
+ * references, they are searched from the index of their entities.
+ */
+public final class SearchText {
+
+    private static final ConcurrentHashMap<Class<?>, Field[]> FIELDS = new ConcurrentHashMap<>();
+
+    private SearchText() {
+
+    }
+
+    /**
+     * @param entity entity to read
+     * @return searchable values of the entity separated with new lines
+     */
+    public static String of(Object entity) {
+        StringBuilder builder = new StringBuilder();
+        try {
+            for (Field field : getFields(entity.getClass())) {
+                Object value = field.get(entity);
+                if (value instanceof SearchableEnum) {
+                    value = ((SearchableEnum) value).getText();
+                }
+                if (value != null) {
+                    builder.append(value).append('\n');
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        return builder.toString();
+    }
+
+    private static Field[] getFields(Class<?> type) {
+        Field[] fields = FIELDS.get(type);
+        if (fields == null) {
+            List<Field> list = new ArrayList<>();
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                for (Field field : current.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getAnnotation(SearchIgnore.class) != null
+                            || field.getAnnotation(Transient.class) != null || field.getAnnotation(SearchFrom.class) != null) {
+                        continue;
+                    }
+                    if (field.getType().equals(String.class)
+                            || (field.getType().isEnum() && SearchableEnum.class.isAssignableFrom(field.getType()))) {
+                        field.setAccessible(true);
+                        list.add(field);
+                    }
+                }
+            }
+            fields = list.toArray(new Field[list.size()]);
+            FIELDS.putIfAbsent(type, fields);
+        }
+        return fields;
+    }
+}
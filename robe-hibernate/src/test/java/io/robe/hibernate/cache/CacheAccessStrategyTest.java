@@ -0,0 +1,153 @@
+package io.robe.hibernate.cache;
+
+import org.hibernate.cache.CacheException;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.hibernate.cache.spi.access.SoftLock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class CacheAccessStrategyTest {
+
+    private RobeRegionFactory factory;
+
+    private CacheRegion.Entity region;
+
+    @Before
+    public void setUp() throws Exception {
+        factory = new RobeRegionFactory();
+        factory.start(null, new Properties());
+        region = (CacheRegion.Entity) factory.buildEntityRegion("entity", new Properties(), null);
+    }
+
+    @Test
+    public void putFromLoad() throws Exception {
+        EntityRegionAccessStrategy strategy = region.buildAccessStrategy(AccessType.READ_WRITE);
+        assertNull(strategy.get("1", factory.nextTimestamp()));
+        assertTrue(strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0));
+        assertEquals("v1", strategy.get("1", factory.nextTimestamp()));
+        assertFalse(strategy.putFromLoad("1", "v2", factory.nextTimestamp(), 0, true));
+        assertEquals("v1", strategy.get("1", factory.nextTimestamp()));
+        assertEquals(2, factory.getStats("entity").hitCount());
+        assertEquals(1, factory.getStats("entity").missCount());
+    }
+
+    @Test
+    public void readWriteUpdate() throws Exception {
+        EntityRegionAccessStrategy strategy = region.buildAccessStrategy(AccessType.READ_WRITE);
+        strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0);
+        long loadStarted = factory.nextTimestamp();
+
+        SoftLock lock = strategy.lockItem("1", 0);
+        assertFalse(strategy.update("1", "v2", 1, 0));
+        assertNull(strategy.get("1", factory.nextTimestamp()));
+        assertFalse(region.contains("1"));
+        assertTrue(region.toMap().isEmpty());
+        // Loads while the item is locked can't put their state.
+        assertFalse(strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0));
+
+        assertFalse(strategy.afterUpdate("1", "v2", 1, 0, lock));
+        assertNull(strategy.get("1", factory.nextTimestamp()));
+        // Load started before the commit may have read the old state.
+        assertFalse(strategy.putFromLoad("1", "v1", loadStarted, 0));
+        assertTrue(strategy.putFromLoad("1", "v2", factory.nextTimestamp(), 1));
+        assertEquals("v2", strategy.get("1", factory.nextTimestamp()));
+    }
+
+    @Test
+    public void readWriteConcurrentUpdates() throws Exception {
+        EntityRegionAccessStrategy strategy = region.buildAccessStrategy(AccessType.READ_WRITE);
+        SoftLock first = strategy.lockItem("1", 0);
+        SoftLock second = strategy.lockItem("1", 0);
+
+        strategy.afterUpdate("1", "v1", 1, 0, first);
+        assertFalse(strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 1));
+
+        strategy.afterUpdate("1", "v2", 2, 1, second);
+        assertTrue(strategy.putFromLoad("1", "v2", factory.nextTimestamp(), 2));
+    }
+
+    @Test
+    public void readWriteLockIsNotEvicted() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(RobeRegionFactory.MAX_ENTRIES, "1");
+        factory = new RobeRegionFactory();
+        factory.start(null, properties);
+        EntityRegionAccessStrategy strategy = factory.buildEntityRegion("small", new Properties(), null)
+                .buildAccessStrategy(AccessType.READ_WRITE);
+        long loadStarted = factory.nextTimestamp();
+
+        SoftLock lock = strategy.lockItem("1", 0);
+        // Other items fill the region while the item is locked.
+        for (int i = 2; i < 5; i++) {
+            assertTrue(strategy.putFromLoad(String.valueOf(i), "v" + i, factory.nextTimestamp(), 0));
+        }
+        assertFalse(strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0));
+
+        strategy.unlockItem("1", lock);
+        for (int i = 5; i < 8; i++) {
+            assertTrue(strategy.putFromLoad(String.valueOf(i), "v" + i, factory.nextTimestamp(), 0));
+        }
+        assertFalse(strategy.putFromLoad("1", "v1", loadStarted, 0));
+        assertTrue(strategy.putFromLoad("1", "v2", factory.nextTimestamp(), 1));
+        assertEquals(1, ((CacheAccessStrategy) strategy).getLockCount());
+    }
+
+    @Test
+    public void readWriteRemove() throws Exception {
+        EntityRegionAccessStrategy strategy = region.buildAccessStrategy(AccessType.READ_WRITE);
+        strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0);
+        long loadStarted = factory.nextTimestamp();
+
+        SoftLock lock = strategy.lockItem("1", 0);
+        strategy.remove("1");
+        assertNull(strategy.get("1", factory.nextTimestamp()));
+        strategy.unlockItem("1", lock);
+        assertFalse(strategy.putFromLoad("1", "v1", loadStarted, 0));
+        assertNull(strategy.get("1", factory.nextTimestamp()));
+    }
+
+    @Test
+    public void nonstrictReadWriteUpdate() throws Exception {
+        EntityRegionAccessStrategy strategy = region.buildAccessStrategy(AccessType.NONSTRICT_READ_WRITE);
+        strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0);
+
+        assertNull(strategy.lockItem("1", 0));
+        assertFalse(strategy.update("1", "v2", 1, 0));
+        assertNull(strategy.get("1", factory.nextTimestamp()));
+        assertFalse(strategy.afterUpdate("1", "v2", 1, 0, null));
+        assertTrue(strategy.putFromLoad("1", "v2", factory.nextTimestamp(), 1));
+        assertEquals("v2", strategy.get("1", factory.nextTimestamp()));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void readOnlyUpdate() throws Exception {
+        EntityRegionAccessStrategy strategy = region.buildAccessStrategy(AccessType.READ_ONLY);
+        strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0);
+        strategy.update("1", "v2", 1, 0);
+    }
+
+    @Test(expected = CacheException.class)
+    public void transactional() throws Exception {
+        region.buildAccessStrategy(AccessType.TRANSACTIONAL);
+    }
+
+    @Test
+    public void lockRegion() throws Exception {
+        EntityRegionAccessStrategy strategy = region.buildAccessStrategy(AccessType.READ_WRITE);
+        strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0);
+        long loadStarted = factory.nextTimestamp();
+
+        SoftLock lock = strategy.lockRegion();
+        assertNull(strategy.get("1", factory.nextTimestamp()));
+        assertFalse(strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0));
+
+        strategy.unlockRegion(lock);
+        assertFalse(strategy.putFromLoad("1", "v1", loadStarted, 0));
+        assertTrue(strategy.putFromLoad("1", "v2", factory.nextTimestamp(), 1));
+    }
+}
@@ -0,0 +1,111 @@
+package io.robe.hibernate.cache;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.MetricRegistry;
+import org.hibernate.cache.spi.GeneralDataRegion;
+import org.hibernate.cache.spi.access.AccessType;
+import org.hibernate.cache.spi.access.EntityRegionAccessStrategy;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.*;
+
+public class RobeRegionFactoryTest {
+
+    private static RobeRegionFactory start(String... properties) {
+        Properties map = new Properties();
+        for (int i = 0; i < properties.length; i += 2) {
+            map.setProperty(properties[i], properties[i + 1]);
+        }
+        RobeRegionFactory factory = new RobeRegionFactory();
+        factory.start(null, map);
+        return factory;
+    }
+
+    @Test
+    public void nextTimestamp() throws Exception {
+        RobeRegionFactory factory = start();
+        long last = factory.nextTimestamp();
+        for (int i = 0; i < 10000; i++) {
+            long next = factory.nextTimestamp();
+            assertTrue(next > last);
+            last = next;
+        }
+    }
+
+    @Test
+    public void maxEntries() throws Exception {
+        RobeRegionFactory factory = start(RobeRegionFactory.MAX_ENTRIES, "2",
+                RobeRegionFactory.MAX_ENTRIES + ".large", "5");
+        EntityRegionAccessStrategy small = factory.buildEntityRegion("small", new Properties(), null)
+                .buildAccessStrategy(AccessType.READ_WRITE);
+        EntityRegionAccessStrategy large = factory.buildEntityRegion("large", new Properties(), null)
+                .buildAccessStrategy(AccessType.READ_WRITE);
+        for (int i = 0; i < 5; i++) {
+            small.putFromLoad(i, "v" + i, factory.nextTimestamp(), 0);
+            large.putFromLoad(i, "v" + i, factory.nextTimestamp(), 0);
+        }
+        assertEquals(2, small.getRegion().getElementCountInMemory());
+        assertEquals(3, factory.getStats("small").evictionCount());
+        assertEquals(5, large.getRegion().getElementCountInMemory());
+        assertEquals(0, factory.getStats("large").evictionCount());
+    }
+
+    @Test
+    public void expireAfterWrite() throws Exception {
+        RobeRegionFactory factory = start(RobeRegionFactory.EXPIRE_AFTER_WRITE, "1");
+        EntityRegionAccessStrategy strategy = factory.buildEntityRegion("entity", new Properties(), null)
+                .buildAccessStrategy(AccessType.READ_WRITE);
+        strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0);
+        assertEquals("v1", strategy.get("1", factory.nextTimestamp()));
+        Thread.sleep(1100);
+        assertNull(strategy.get("1", factory.nextTimestamp()));
+    }
+
+    @Test
+    public void timestampsAreNotEvicted() throws Exception {
+        RobeRegionFactory factory = start(RobeRegionFactory.MAX_ENTRIES, "1", RobeRegionFactory.EXPIRE_AFTER_WRITE, "1");
+        GeneralDataRegion timestamps = factory.buildTimestampsRegion("timestamps", new Properties());
+        GeneralDataRegion queries = factory.buildQueryResultsRegion("queries", new Properties());
+        for (int i = 0; i < 3; i++) {
+            timestamps.put("table" + i, factory.nextTimestamp());
+            queries.put("query" + i, "result");
+        }
+        assertEquals(3, timestamps.getElementCountInMemory());
+        assertEquals(1, queries.getElementCountInMemory());
+    }
+
+    @Test
+    public void stop() throws Exception {
+        RobeRegionFactory factory = start();
+        EntityRegionAccessStrategy strategy = factory.buildEntityRegion("entity", new Properties(), null)
+                .buildAccessStrategy(AccessType.READ_WRITE);
+        strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0);
+        factory.stop();
+        assertEquals(0, strategy.getRegion().getElementCountInMemory());
+        assertNull(factory.getStats("entity"));
+    }
+
+    @Test
+    public void registerMetrics() throws Exception {
+        RobeRegionFactory factory = start();
+        EntityRegionAccessStrategy strategy = factory.buildEntityRegion("before", new Properties(), null)
+                .buildAccessStrategy(AccessType.READ_WRITE);
+        MetricRegistry metrics = new MetricRegistry();
+        factory.registerMetrics(metrics);
+        factory.buildEntityRegion("after", new Properties(), null);
+
+        strategy.putFromLoad("1", "v1", factory.nextTimestamp(), 0);
+        strategy.get("1", factory.nextTimestamp());
+        strategy.get("2", factory.nextTimestamp());
+
+        String prefix = MetricRegistry.name(RobeRegionFactory.class, "before");
+        assertEquals(1L, metrics.getGauges().get(MetricRegistry.name(prefix, "hits")).getValue());
+        assertEquals(1L, metrics.getGauges().get(MetricRegistry.name(prefix, "misses")).getValue());
+        assertEquals(0.5, (Double) metrics.getGauges().get(MetricRegistry.name(prefix, "hitRatio")).getValue(), 0.001);
+        assertEquals(1L, metrics.getGauges().get(MetricRegistry.name(prefix, "size")).getValue());
+        Gauge size = metrics.getGauges().get(MetricRegistry.name(RobeRegionFactory.class, "after", "size"));
+        assertEquals(0L, size.getValue());
+    }
+}
@@ -0,0 +1,30 @@
+package io.robe.hibernate.search;
+
+import io.robe.common.service.search.SearchFrom;
+import io.robe.hibernate.entity.BaseEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+
+@Entity
+public class Attachment extends BaseEntity {
+
+    @Column
+    private String name;
+
+    @SearchFrom(entity = Note.class, target = "title", id = "oid")
+    @Column(length = 32)
+    private String noteOid;
+
+    public Attachment() {
+    }
+
+    public Attachment(String name, String noteOid) {
+        this.name = name;
+        this.noteOid = noteOid;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
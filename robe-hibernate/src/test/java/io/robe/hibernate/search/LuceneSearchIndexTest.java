@@ -0,0 +1,169 @@
+package io.robe.hibernate.search;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.robe.common.service.search.model.SearchModel;
+import io.robe.hibernate.dao.BaseDao;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.hibernate.context.internal.ManagedSessionContext;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.servlet.http.HttpServletResponse;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+
+public class LuceneSearchIndexTest {
+
+    private SessionFactory factory;
+
+    private LuceneSearchIndex index;
+
+    private void start(int maxResults, String... titles) throws Exception {
+        Configuration configuration = new Configuration();
+        configuration.setProperty("hibernate.connection.driver_class", "org.h2.Driver");
+        configuration.setProperty("hibernate.connection.url", "jdbc:h2:mem:search;DB_CLOSE_DELAY=-1");
+        configuration.setProperty("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        configuration.setProperty("hibernate.hbm2ddl.auto", "create-drop");
+        configuration.setProperty("hibernate.current_session_context_class", "managed");
+        configuration.addAnnotatedClass(Note.class);
+        configuration.addAnnotatedClass(Attachment.class);
+        factory = configuration.buildSessionFactory();
+
+        Session session = open();
+        for (String title : titles) {
+            session.save(new Note(title));
+        }
+        close();
+
+        index = new LuceneSearchIndex();
+        index.configure(new ObjectMapper().convertValue(Collections.singletonMap("maxResults", maxResults),
+                SearchIndexConfiguration.class), factory);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        index.stop();
+        factory.close();
+    }
+
+    private Session open() {
+        Session session = factory.openSession();
+        ManagedSessionContext.bind(session);
+        session.beginTransaction();
+        return session;
+    }
+
+    private void close() {
+        Session session = ManagedSessionContext.unbind(factory);
+        session.getTransaction().commit();
+        session.close();
+    }
+
+    private static SearchModel search(String q) {
+        SearchModel search = new SearchModel();
+        search.setQ(q);
+        search.setResponse((HttpServletResponse) Proxy.newProxyInstance(LuceneSearchIndexTest.class.getClassLoader(),
+                new Class[]{HttpServletResponse.class}, new InvocationHandler() {
+                    @Override
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        return null;
+                    }
+                }));
+        return search;
+    }
+
+    private Set<String> titles(Set<String> oids) {
+        Set<String> titles = new TreeSet<>();
+        Session session = open();
+        for (String oid : oids) {
+            titles.add(((Note) session.get(Note.class, oid)).getTitle());
+        }
+        close();
+        return titles;
+    }
+
+    @Test
+    public void search() throws Exception {
+        start(10, "Annual report", "Annual budget", "Monthly report");
+        index.start();
+        assertTrue(index.isIndexed(Note.class));
+        assertFalse(index.isIndexed(Attachment.class));
+
+        assertEquals(2, index.search(Note.class, "annual").size());
+        assertEquals(Collections.singleton("Annual report"), titles(index.search(Note.class, "ann rep")));
+        assertTrue(index.search(Note.class, "nual").isEmpty());
+        assertTrue(index.search(Note.class, " ").isEmpty());
+        assertTrue(index.search(Attachment.class, "annual").isEmpty());
+    }
+
+    @Test
+    public void searchTooManyResults() throws Exception {
+        start(2, "Annual report", "Annual budget", "Annual plan");
+        index.start();
+        assertNull(index.search(Note.class, "annual"));
+        assertEquals(1, index.search(Note.class, "annual plan").size());
+    }
+
+    @Test
+    public void reconcile() throws Exception {
+        start(10, "Annual report", "Annual budget");
+        index.start();
+        // Changes without the listener are not in the index until it is reconciled.
+        Session session = open();
+        Note added = new Note("Annual plan");
+        session.save(added);
+        for (Object note : session.createCriteria(Note.class).list()) {
+            if (((Note) note).getTitle().equals("Annual report")) {
+                ((Note) note).setTitle("Monthly report");
+            } else if (((Note) note).getTitle().equals("Annual budget")) {
+                session.delete(note);
+            }
+        }
+        close();
+        assertEquals(2, index.search(Note.class, "annual").size());
+
+        index.reconcile(Note.class);
+        assertEquals(Collections.singleton("Annual plan"), titles(index.search(Note.class, "annual")));
+        assertEquals(Collections.singleton("Monthly report"), titles(index.search(Note.class, "monthly")));
+    }
+
+    @Test
+    public void daoSearch() throws Exception {
+        start(2, "Annual report", "Annual budget", "Annual plan", "Monthly report");
+        SearchIndexBundle.register(index, factory);
+        index.start();
+        BaseDao<Note> notes = new BaseDao<Note>(factory) {
+        };
+        BaseDao<Attachment> attachments = new BaseDao<Attachment>(factory) {
+        };
+
+        Session session = open();
+        Note weekly = new Note("Weekly report");
+        session.save(weekly);
+        session.save(new Attachment("summary.pdf", weekly.getOid()));
+        close();
+
+        open();
+        assertEquals(1, notes.findAll(search("week rep")).size());
+        // Words are matched from their beginning in the index.
+        assertEquals(0, notes.findAll(search("eekly")).size());
+        // Too many for the index, searched with like.
+        assertEquals(3, notes.findAll(search("annual")).size());
+        assertEquals(3, notes.findAll(search("report")).size());
+
+        List<Attachment> found = attachments.findAll(search("weekly"));
+        assertEquals(1, found.size());
+        assertEquals("summary.pdf", found.get(0).getName());
+        assertEquals(1, attachments.findAll(search("summary")).size());
+        close();
+    }
+}
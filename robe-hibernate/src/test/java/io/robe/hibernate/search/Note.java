@@ -0,0 +1,29 @@
+package io.robe.hibernate.search;
+
+import io.robe.hibernate.entity.BaseEntity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+
+@Entity
+@SearchIndexed
+public class Note extends BaseEntity {
+
+    @Column
+    private String title;
+
+    public Note() {
+    }
+
+    public Note(String title) {
+        this.title = title;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+}